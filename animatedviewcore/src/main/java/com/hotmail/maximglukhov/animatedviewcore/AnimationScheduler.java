@@ -0,0 +1,209 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.support.annotation.VisibleForTesting;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+
+import java.util.ArrayList;
+
+/**
+ * Process wide source of animation frames. A single {@link Choreographer} frame callback
+ * advances every registered client from the same frame time, so animations started together
+ * stay in phase however many views run them.
+ *
+ * <p>Clients register only while they have an active animation and redraw themselves only
+ * when a frame changed them. The scheduler is also a {@link FrameClock}: during a frame it
+ * reports the frame time, otherwise the current animation time, never going back.</p>
+ *
+ * <p>All methods must be called on the main thread.</p>
+ */
+public class AnimationScheduler implements FrameClock, Choreographer.FrameCallback {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static AnimationScheduler sInstance;
+
+    /**
+     * Registered clients. Unregistering while dispatching leaves a null, removed after the frame.
+     */
+    private final ArrayList<Client> mClients = new ArrayList<>();
+
+    /**
+     * Determines if a frame callback is currently posted.
+     */
+    private boolean mIsFrameRequested;
+    /**
+     * Determines if clients are currently being advanced.
+     */
+    private boolean mIsDispatching;
+
+    /**
+     * Time of the current frame while dispatching.
+     */
+    private long mFrameTimeMillis;
+    /**
+     * Latest time reported, keeps the clock from going back.
+     */
+    private long mLastTimeMillis;
+
+    AnimationScheduler() {
+    }
+
+    /**
+     * @return Scheduler shared by all views of the process.
+     */
+    public static AnimationScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new AnimationScheduler();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Replace the shared scheduler, for tests only. Views pick up the scheduler they are
+     * created with.
+     * @param scheduler New shared scheduler, or null to create one on demand.
+     */
+    @VisibleForTesting
+    static void setInstance(AnimationScheduler scheduler) {
+        sInstance = scheduler;
+    }
+
+    /**
+     * Advance the client every frame from the next one on, until it's unregistered or
+     * returns false from {@link Client#onAnimationFrame(long)}. Registering twice does nothing.
+     * @param client Client with an active animation.
+     */
+    public void register(Client client) {
+        if (mClients.contains(client)) {
+            return;
+        }
+
+        mClients.add(client);
+
+        if (!mIsFrameRequested) {
+            mIsFrameRequested = true;
+            postFrameCallback();
+        }
+    }
+
+    /**
+     * Stop advancing the client. Safe to call from {@link Client#onAnimationFrame(long)}.
+     * @param client Registered client.
+     */
+    public void unregister(Client client) {
+        int index = mClients.indexOf(client);
+        if (index < 0) {
+            return;
+        }
+
+        if (mIsDispatching) {
+            mClients.set(index, null);
+        } else {
+            mClients.remove(index);
+
+            if (mClients.isEmpty() && mIsFrameRequested) {
+                mIsFrameRequested = false;
+                removeFrameCallback();
+            }
+        }
+    }
+
+    /**
+     * @param client Client to check.
+     * @return True if the client is advanced every frame.
+     */
+    public boolean isRegistered(Client client) {
+        return mClients.contains(client);
+    }
+
+    /**
+     * @return Amount of registered clients.
+     */
+    public int getClientCount() {
+        int count = 0;
+        for (int i = 0; i < mClients.size(); i++) {
+            if (mClients.get(i) != null) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        if (mIsDispatching) {
+            return mFrameTimeMillis;
+        }
+
+        mLastTimeMillis = Math.max(mLastTimeMillis, AnimationUtils.currentAnimationTimeMillis());
+        return mLastTimeMillis;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mIsFrameRequested = false;
+
+        // Animations started after the frame's vsync already read a later time.
+        mFrameTimeMillis = Math.max(frameTimeNanos / NANOS_PER_MILLI, mLastTimeMillis);
+        mLastTimeMillis = mFrameTimeMillis;
+
+        // Clients registered during this frame start with the next one.
+        int clientCount = mClients.size();
+
+        mIsDispatching = true;
+        try {
+            for (int i = 0; i < clientCount; i++) {
+                Client client = mClients.get(i);
+                if (client != null && !client.onAnimationFrame(mFrameTimeMillis)) {
+                    mClients.set(i, null);
+                }
+            }
+        } finally {
+            mIsDispatching = false;
+            removeUnregisteredClients();
+        }
+
+        if (!mClients.isEmpty() && !mIsFrameRequested) {
+            mIsFrameRequested = true;
+            postFrameCallback();
+        }
+    }
+
+    /**
+     * Post {@link #doFrame(long)} for the next frame.
+     */
+    void postFrameCallback() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Remove a posted {@link #doFrame(long)}.
+     */
+    void removeFrameCallback() {
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    private void removeUnregisteredClients() {
+        for (int i = mClients.size() - 1; i >= 0; i--) {
+            if (mClients.get(i) == null) {
+                mClients.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Animation advanced by the scheduler.
+     */
+    public interface Client {
+
+        /**
+         * Advance the animation and redraw if anything changed.
+         * @param frameTimeMillis Frame time, shared by all clients of this frame.
+         * @return True to keep receiving frames, false if the animation ended.
+         */
+        boolean onAnimationFrame(long frameTimeMillis);
+    }
+}
@@ -0,0 +1,436 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Sequences animation stages on a single clock.
+ *
+ * <p>Every stage is declared with a start offset and a duration. Stage progress is calculated
+ * from the time elapsed since the timeline started, so a late frame jumps straight to the
+ * correct state instead of delaying the following stages.</p>
+ *
+ * <p>Updating the timeline doesn't allocate.</p>
+ */
+public class AnimationTimeline {
+
+    /**
+     * Initial capacity for stage arrays.
+     */
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Amount of stages on this timeline.
+     */
+    private int mStageCount;
+
+    /**
+     * Start offset of every stage in milliseconds.
+     */
+    private long[] mStageStarts = new long[DEFAULT_CAPACITY];
+    /**
+     * Duration of every stage in milliseconds.
+     */
+    private long[] mStageDurations = new long[DEFAULT_CAPACITY];
+    /**
+     * Interpolator of every stage. Null means linear.
+     */
+    private TimeInterpolator[] mStageInterpolators = new TimeInterpolator[DEFAULT_CAPACITY];
+
+    /**
+     * Linear progress of every stage for the current elapsed time.
+     */
+    private float[] mStageFractions = new float[DEFAULT_CAPACITY];
+    /**
+     * Interpolated progress of every stage for the current elapsed time.
+     */
+    private float[] mStageValues = new float[DEFAULT_CAPACITY];
+
+    /**
+     * Total duration, the end of the last stage unless set explicitly.
+     */
+    private long mDuration;
+    /**
+     * Determines if {@link #mDuration} was set explicitly.
+     */
+    private boolean mHasExplicitDuration;
+
+    /**
+     * Determines if the timeline starts over once its duration passes.
+     */
+    private boolean mIsLooping;
+
+    /**
+     * Determines if the timeline is advancing with the clock.
+     */
+    private boolean mIsRunning;
+
+    /**
+     * Determines if the timeline runs backwards, from its duration towards zero.
+     */
+    private boolean mIsReversed;
+
+    /**
+     * Clock time at which the timeline started running in its current direction.
+     */
+    private long mStartTime;
+
+    /**
+     * Time elapsed on this timeline, within [0, duration].
+     */
+    private long mElapsed;
+
+    /**
+     * Add a stage to the timeline.
+     * @param startOffsetMillis Time from timeline start at which the stage starts.
+     * @param durationMillis Stage duration.
+     * @param interpolator Stage interpolator, or null for linear progress.
+     * @return Index of the new stage.
+     */
+    public int addStage(long startOffsetMillis, long durationMillis,
+                        TimeInterpolator interpolator) {
+        ensureCapacity(mStageCount + 1);
+
+        int index = mStageCount++;
+        mStageInterpolators[index] = interpolator;
+        setStageTiming(index, startOffsetMillis, durationMillis);
+
+        return index;
+    }
+
+    /**
+     * Change timing of an existing stage.
+     * @param index Stage index.
+     * @param startOffsetMillis Time from timeline start at which the stage starts.
+     * @param durationMillis Stage duration.
+     */
+    public void setStageTiming(int index, long startOffsetMillis, long durationMillis) {
+        checkStageIndex(index);
+        if (startOffsetMillis < 0 || durationMillis <= 0) {
+            throw new IllegalArgumentException("Invalid stage timing: " + startOffsetMillis
+                    + ", " + durationMillis);
+        }
+
+        mStageStarts[index] = startOffsetMillis;
+        mStageDurations[index] = durationMillis;
+
+        updateDuration();
+        updateStage(index);
+    }
+
+    /**
+     * Remove all stages. Elapsed time is kept within the new duration.
+     */
+    public void clearStages() {
+        for (int i = 0; i < mStageCount; i++) {
+            mStageInterpolators[i] = null;
+        }
+        mStageCount = 0;
+
+        updateDuration();
+    }
+
+    /**
+     * Remove stages from the given index onwards. Earlier stages keep their indices.
+     * @param fromIndex Index of the first stage to remove.
+     */
+    public void removeStages(int fromIndex) {
+        if (fromIndex < 0 || fromIndex > mStageCount) {
+            throw new IndexOutOfBoundsException("Stage " + fromIndex + ", count " + mStageCount);
+        }
+
+        for (int i = fromIndex; i < mStageCount; i++) {
+            mStageInterpolators[i] = null;
+        }
+        mStageCount = fromIndex;
+
+        updateDuration();
+    }
+
+    /**
+     * @return Amount of stages on this timeline.
+     */
+    public int getStageCount() {
+        return mStageCount;
+    }
+
+    /**
+     * Set total duration instead of ending with the last stage.
+     * @param durationMillis Total duration, or 0 to end with the last stage.
+     */
+    public void setDuration(long durationMillis) {
+        if (durationMillis < 0) {
+            throw new IllegalArgumentException("durationMillis < 0");
+        }
+
+        mHasExplicitDuration = durationMillis > 0;
+        mDuration = durationMillis;
+        updateDuration();
+    }
+
+    /**
+     * @return Total duration in milliseconds.
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * @param looping True to start over once the duration passes.
+     */
+    public void setLooping(boolean looping) {
+        mIsLooping = looping;
+    }
+
+    public boolean isLooping() {
+        return mIsLooping;
+    }
+
+    /**
+     * Start from the beginning.
+     * @param nowMillis Current clock time.
+     */
+    public void start(long nowMillis) {
+        mIsReversed = false;
+        seek(0);
+        resume(nowMillis);
+    }
+
+    /**
+     * Continue from the current elapsed time.
+     * @param nowMillis Current clock time.
+     */
+    public void resume(long nowMillis) {
+        mStartTime = nowMillis - (mIsReversed ? mDuration - mElapsed : mElapsed);
+        mIsRunning = true;
+    }
+
+    /**
+     * Change the running direction, continuing from the current elapsed time.
+     * @param reversed True to run from the duration towards zero.
+     * @param nowMillis Current clock time.
+     */
+    public void setReversed(boolean reversed, long nowMillis) {
+        if (mIsReversed == reversed) {
+            return;
+        }
+
+        boolean wasRunning = update(nowMillis);
+        mIsReversed = reversed;
+
+        if (wasRunning) {
+            resume(nowMillis);
+        }
+    }
+
+    /**
+     * @return True if the timeline runs backwards.
+     */
+    public boolean isReversed() {
+        return mIsReversed;
+    }
+
+    /**
+     * Stop advancing, keeping the current elapsed time.
+     * @param nowMillis Current clock time.
+     */
+    public void pause(long nowMillis) {
+        if (mIsRunning) {
+            update(nowMillis);
+            mIsRunning = false;
+        }
+    }
+
+    /**
+     * Stop and go back to the beginning.
+     */
+    public void reset() {
+        seek(0);
+    }
+
+    /**
+     * Stop and move to the given elapsed time.
+     * Call {@link #resume(long)} to continue running from there.
+     * @param elapsedMillis Elapsed time, clamped to [0, duration].
+     */
+    public void seek(long elapsedMillis) {
+        mIsRunning = false;
+        mElapsed = Math.max(0, Math.min(elapsedMillis, mDuration));
+        updateStages();
+    }
+
+    /**
+     * Advance the timeline to the given clock time.
+     * @param nowMillis Current clock time.
+     * @return True if the timeline is still running after this update.
+     */
+    public boolean update(long nowMillis) {
+        if (!mIsRunning) {
+            return false;
+        }
+
+        // Time played in the current direction.
+        long played = nowMillis - mStartTime;
+        if (played < 0) {
+            played = 0;
+        }
+
+        if (played >= mDuration) {
+            if (mIsLooping && mDuration > 0) {
+                played %= mDuration;
+                // Keep start time close to now so played time never overflows.
+                mStartTime = nowMillis - played;
+            } else {
+                played = mDuration;
+                mIsRunning = false;
+            }
+        }
+
+        mElapsed = mIsReversed ? mDuration - played : played;
+        updateStages();
+
+        return mIsRunning;
+    }
+
+    /**
+     * @return True if the timeline is advancing with the clock.
+     */
+    public boolean isRunning() {
+        return mIsRunning;
+    }
+
+    /**
+     * @return True if the timeline reached its end, or its beginning when reversed.
+     * Looping timelines never finish.
+     */
+    public boolean isFinished() {
+        if (mIsLooping) {
+            return false;
+        }
+
+        return mIsReversed ? mElapsed <= 0 : mElapsed >= mDuration;
+    }
+
+    /**
+     * @return Elapsed time in milliseconds.
+     */
+    public long getElapsed() {
+        return mElapsed;
+    }
+
+    /**
+     * @param index Stage index.
+     * @return Time from timeline start at which the stage starts.
+     */
+    public long getStageStart(int index) {
+        checkStageIndex(index);
+
+        return mStageStarts[index];
+    }
+
+    /**
+     * @param index Stage index.
+     * @return Stage duration.
+     */
+    public long getStageDuration(int index) {
+        checkStageIndex(index);
+
+        return mStageDurations[index];
+    }
+
+    /**
+     * @param index Stage index.
+     * @return Linear progress of the stage, 0 to 1.
+     */
+    public float getStageFraction(int index) {
+        return mStageFractions[index];
+    }
+
+    /**
+     * @param index Stage index.
+     * @return Interpolated progress of the stage.
+     */
+    public float getStageValue(int index) {
+        return mStageValues[index];
+    }
+
+    /**
+     * @param index Stage index.
+     * @return True if the stage started and didn't end yet.
+     */
+    public boolean isStageActive(int index) {
+        float fraction = mStageFractions[index];
+        return fraction > 0.0f && fraction < 1.0f;
+    }
+
+    private void updateDuration() {
+        if (!mHasExplicitDuration) {
+            long end = 0;
+            for (int i = 0; i < mStageCount; i++) {
+                end = Math.max(end, mStageStarts[i] + mStageDurations[i]);
+            }
+
+            mDuration = end;
+        }
+
+        if (mElapsed > mDuration) {
+            mElapsed = mDuration;
+        }
+    }
+
+    private void updateStages() {
+        for (int i = 0; i < mStageCount; i++) {
+            updateStage(i);
+        }
+    }
+
+    private void updateStage(int index) {
+        long stageElapsed = mElapsed - mStageStarts[index];
+
+        float fraction;
+        if (stageElapsed <= 0) {
+            fraction = 0.0f;
+        } else if (stageElapsed >= mStageDurations[index]) {
+            fraction = 1.0f;
+        } else {
+            fraction = stageElapsed / (float) mStageDurations[index];
+        }
+
+        TimeInterpolator interpolator = mStageInterpolators[index];
+
+        mStageFractions[index] = fraction;
+        mStageValues[index] = interpolator != null
+                ? interpolator.getInterpolation(fraction) : fraction;
+    }
+
+    private void checkStageIndex(int index) {
+        if (index < 0 || index >= mStageCount) {
+            throw new IndexOutOfBoundsException("Stage " + index + ", count " + mStageCount);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mStageStarts.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, mStageStarts.length * 2);
+
+        long[] starts = new long[newCapacity];
+        long[] durations = new long[newCapacity];
+        TimeInterpolator[] interpolators = new TimeInterpolator[newCapacity];
+        float[] fractions = new float[newCapacity];
+        float[] values = new float[newCapacity];
+
+        System.arraycopy(mStageStarts, 0, starts, 0, mStageCount);
+        System.arraycopy(mStageDurations, 0, durations, 0, mStageCount);
+        System.arraycopy(mStageInterpolators, 0, interpolators, 0, mStageCount);
+        System.arraycopy(mStageFractions, 0, fractions, 0, mStageCount);
+        System.arraycopy(mStageValues, 0, values, 0, mStageCount);
+
+        mStageStarts = starts;
+        mStageDurations = durations;
+        mStageInterpolators = interpolators;
+        mStageFractions = fractions;
+        mStageValues = values;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * Source of frame time for animations.
+ * Can be replaced to drive animations from a simulated clock.
+ */
+public interface FrameClock {
+
+    /**
+     * Clock based on {@link AnimationUtils#currentAnimationTimeMillis()}.
+     */
+    FrameClock SYSTEM = new FrameClock() {
+        @Override
+        public long uptimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+    };
+
+    /**
+     * @return Current time in milliseconds.
+     */
+    long uptimeMillis();
+}
@@ -0,0 +1,300 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+/**
+ * Frame statistics of an animated view: frames drawn, time spent per frame as histograms,
+ * stage milestones reached late or skipped, and time spent animating while off-screen.
+ *
+ * <p>Views only create metrics when enabled, so disabled metrics cost a null check.
+ * Recording doesn't allocate. All methods must be called on the main thread.</p>
+ */
+public final class FrameMetrics {
+
+    /**
+     * Amount of histogram buckets.
+     */
+    public static final int BUCKET_COUNT = 9;
+
+    /**
+     * Upper bounds of all histogram buckets but the last, which holds everything above.
+     */
+    private static final long[] BUCKET_UPPER_BOUNDS_NANOS = {
+            100000L, 250000L, 500000L, 1000000L, 2000000L, 4000000L, 8000000L, 16000000L
+    };
+
+    /**
+     * A stage milestone reached later than this after it was due counts as late.
+     * About one and a half frames at 60 frames per second.
+     */
+    public static final long LATE_MILESTONE_THRESHOLD_MILLIS = 25;
+
+    /**
+     * Frame gaps longer than this mean the animation was stopped in between,
+     * so they don't count as time spent off-screen.
+     */
+    private static final long MAX_FRAME_GAP_MILLIS = 250;
+
+    private long mFramesDrawn;
+    private long mFramesAnimated;
+    private long mTotalDrawNanos;
+    private long mTotalFrameNanos;
+    private final long[] mDrawHistogram = new long[BUCKET_COUNT];
+    private final long[] mFrameHistogram = new long[BUCKET_COUNT];
+
+    private long mLateMilestones;
+    private long mSkippedMilestones;
+    /**
+     * Stage fractions of the previous frame, to detect crossed milestones.
+     */
+    private float[] mStageFractions = new float[0];
+    /**
+     * Timeline elapsed time of the previous frame, or -1.
+     */
+    private long mLastElapsed = -1;
+
+    private long mOffscreenMillis;
+    /**
+     * Clock time of the previous animation frame, or -1.
+     */
+    private long mLastFrameTime = -1;
+
+    private Listener mListener;
+
+    /**
+     * @param bucket Histogram bucket index.
+     * @return Upper bound of the bucket in nanoseconds, {@link Long#MAX_VALUE} for the last one.
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+        return bucket < BUCKET_UPPER_BOUNDS_NANOS.length
+                ? BUCKET_UPPER_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * @param listener Listener notified after every drawn frame, or null.
+     */
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Record a drawn frame.
+     * @param durationNanos Time spent drawing.
+     */
+    public void recordDraw(long durationNanos) {
+        mFramesDrawn++;
+        mTotalDrawNanos += durationNanos;
+        mDrawHistogram[bucketOf(durationNanos)]++;
+
+        if (mListener != null) {
+            mListener.onFrameMetricsUpdated(this);
+        }
+    }
+
+    /**
+     * Record an animation frame.
+     * @param nowMillis Clock time of the frame.
+     * @param durationNanos Time spent preparing the frame.
+     * @param isOnScreen True if any part of the view is on screen, not merely shown:
+     *                   views scrolled out of their viewport count as off-screen.
+     */
+    public void recordFrame(long nowMillis, long durationNanos, boolean isOnScreen) {
+        mFramesAnimated++;
+        mTotalFrameNanos += durationNanos;
+        mFrameHistogram[bucketOf(durationNanos)]++;
+
+        if (!isOnScreen && mLastFrameTime >= 0) {
+            long frameGap = nowMillis - mLastFrameTime;
+            if (frameGap > 0 && frameGap <= MAX_FRAME_GAP_MILLIS) {
+                mOffscreenMillis += frameGap;
+            }
+        }
+        mLastFrameTime = nowMillis;
+    }
+
+    /**
+     * Check which stage milestones were crossed since the previous frame. A stage that started
+     * and ended between two frames was skipped; a start or end crossed more than
+     * {@link #LATE_MILESTONE_THRESHOLD_MILLIS} after it was due was late. Timelines without
+     * stages have no milestones, so nothing is recorded for them.
+     * @param timeline Timeline just updated for the current frame.
+     */
+    public void recordStages(AnimationTimeline timeline) {
+        int stageCount = timeline.getStageCount();
+        if (mStageFractions.length < stageCount) {
+            mStageFractions = new float[stageCount];
+        }
+
+        long elapsed = timeline.getElapsed();
+        boolean isReversed = timeline.isReversed();
+
+        // Looping, seeking or restarting jumps instead of playing through.
+        boolean isContinuous = mLastElapsed >= 0
+                && (isReversed ? elapsed <= mLastElapsed : elapsed >= mLastElapsed);
+
+        for (int i = 0; i < stageCount; i++) {
+            float previous = mStageFractions[i];
+            float current = timeline.getStageFraction(i);
+            mStageFractions[i] = current;
+
+            if (!isContinuous || previous == current) {
+                continue;
+            }
+
+            if ((previous <= 0.0f && current >= 1.0f) || (previous >= 1.0f && current <= 0.0f)) {
+                mSkippedMilestones++;
+                continue;
+            }
+
+            long start = timeline.getStageStart(i);
+            long end = start + timeline.getStageDuration(i);
+            long lateness = -1;
+
+            if (!isReversed) {
+                if (previous < 1.0f && current >= 1.0f) {
+                    lateness = elapsed - end;
+                } else if (previous <= 0.0f && current > 0.0f) {
+                    lateness = elapsed - start;
+                }
+            } else {
+                if (previous >= 1.0f && current < 1.0f) {
+                    lateness = end - elapsed;
+                } else if (previous > 0.0f && current <= 0.0f) {
+                    lateness = start - elapsed;
+                }
+            }
+
+            if (lateness > LATE_MILESTONE_THRESHOLD_MILLIS) {
+                mLateMilestones++;
+            }
+        }
+
+        mLastElapsed = elapsed;
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        mFramesDrawn = 0;
+        mFramesAnimated = 0;
+        mTotalDrawNanos = 0;
+        mTotalFrameNanos = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mDrawHistogram[i] = 0;
+            mFrameHistogram[i] = 0;
+        }
+
+        mLateMilestones = 0;
+        mSkippedMilestones = 0;
+        mLastElapsed = -1;
+
+        mOffscreenMillis = 0;
+        mLastFrameTime = -1;
+    }
+
+    /**
+     * @return Copy of the current metrics.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        getSnapshot(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Copy the current metrics without allocating.
+     * @param out Snapshot to fill.
+     */
+    public void getSnapshot(Snapshot out) {
+        out.framesDrawn = mFramesDrawn;
+        out.framesAnimated = mFramesAnimated;
+        out.totalDrawNanos = mTotalDrawNanos;
+        out.totalFrameNanos = mTotalFrameNanos;
+        System.arraycopy(mDrawHistogram, 0, out.drawHistogram, 0, BUCKET_COUNT);
+        System.arraycopy(mFrameHistogram, 0, out.frameHistogram, 0, BUCKET_COUNT);
+        out.lateMilestones = mLateMilestones;
+        out.skippedMilestones = mSkippedMilestones;
+        out.offscreenMillis = mOffscreenMillis;
+    }
+
+    private static int bucketOf(long durationNanos) {
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_NANOS.length; i++) {
+            if (durationNanos <= BUCKET_UPPER_BOUNDS_NANOS[i]) {
+                return i;
+            }
+        }
+
+        return BUCKET_COUNT - 1;
+    }
+
+    /**
+     * Notified after every drawn frame while set on enabled metrics.
+     */
+    public interface Listener {
+
+        /**
+         * @param metrics Metrics just updated. Read with {@link #getSnapshot(Snapshot)}.
+         */
+        void onFrameMetricsUpdated(FrameMetrics metrics);
+    }
+
+    /**
+     * Metrics at a point in time.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Frames drawn, including frames drawn while not animating.
+         */
+        public long framesDrawn;
+        /**
+         * Animation frames, in which the animation advanced.
+         */
+        public long framesAnimated;
+        /**
+         * Total time spent drawing, and in animation frames.
+         */
+        public long totalDrawNanos;
+        public long totalFrameNanos;
+        /**
+         * Frame counts per duration bucket, see {@link FrameMetrics#getBucketUpperBoundNanos(int)}.
+         */
+        public final long[] drawHistogram = new long[BUCKET_COUNT];
+        public final long[] frameHistogram = new long[BUCKET_COUNT];
+        /**
+         * Stage starts or ends reached late, and stages skipped entirely.
+         */
+        public long lateMilestones;
+        public long skippedMilestones;
+        /**
+         * Time spent animating while no part of the view was on screen.
+         */
+        public long offscreenMillis;
+
+        /**
+         * @param histogram {@link #drawHistogram} or {@link #frameHistogram}.
+         * @param percentile Percentile, 0 to 1.
+         * @return Upper bound of the bucket holding the percentile, 0 if nothing was recorded.
+         */
+        public static long getPercentileNanos(long[] histogram, float percentile) {
+            long total = 0;
+            for (long count : histogram) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= target) {
+                    return getBucketUpperBoundNanos(i);
+                }
+            }
+
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.content.Context;
+
+/**
+ * Decides which animation frames are drawn. Skipped frames simply aren't drawn:
+ * animations follow the frame clock, so the next drawn frame shows the right state.
+ *
+ * <p>Must be used from the main thread.</p>
+ */
+public final class FrameRateGovernor {
+
+    /**
+     * Draw every frame, at the display refresh rate.
+     */
+    public static final int POLICY_FULL = 0;
+    /**
+     * Draw at most {@link #getCappedFrameRate()} frames per second.
+     */
+    public static final int POLICY_CAPPED = 1;
+    /**
+     * Draw at full rate, unless the view is small or the device is in power save mode.
+     */
+    public static final int POLICY_ADAPTIVE = 2;
+
+    public static final int DEFAULT_CAPPED_FRAME_RATE = 30;
+
+    /**
+     * Views whose larger side is at most this size are small for {@link #POLICY_ADAPTIVE}.
+     */
+    public static final float SMALL_SIZE_DP = 48.0f;
+
+    /**
+     * Adaptive frame rates of small views and in power save mode. The lower one applies to both.
+     */
+    static final int SMALL_FRAME_RATE = 30;
+    static final int POWER_SAVE_FRAME_RATE = 20;
+
+    /**
+     * Frames arriving this early are still drawn, so frame times rounded to milliseconds
+     * and vsync jitter don't skip frames due exactly at the cap.
+     */
+    private static final long FRAME_TOLERANCE_MILLIS = 4;
+
+    private int mPolicy = POLICY_FULL;
+    private int mCappedFrameRate = DEFAULT_CAPPED_FRAME_RATE;
+    private boolean mIsSmall;
+
+    /**
+     * Time of the last drawn frame, or -1.
+     */
+    private long mLastFrameTime = -1;
+
+    /**
+     * Start following power save mode for {@link #POLICY_ADAPTIVE}.
+     * @param context Any context.
+     */
+    public void attach(Context context) {
+        PowerSaveMonitor.start(context);
+    }
+
+    /**
+     * @param policy {@link #POLICY_FULL}, {@link #POLICY_CAPPED} or {@link #POLICY_ADAPTIVE}.
+     */
+    public void setPolicy(int policy) {
+        if (policy != POLICY_FULL && policy != POLICY_CAPPED && policy != POLICY_ADAPTIVE) {
+            throw new IllegalArgumentException("Unknown frame rate policy: " + policy);
+        }
+
+        mPolicy = policy;
+    }
+
+    public int getPolicy() {
+        return mPolicy;
+    }
+
+    /**
+     * @param framesPerSecond Frame rate of {@link #POLICY_CAPPED}.
+     */
+    public void setCappedFrameRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + framesPerSecond);
+        }
+
+        mCappedFrameRate = framesPerSecond;
+    }
+
+    public int getCappedFrameRate() {
+        return mCappedFrameRate;
+    }
+
+    /**
+     * Set the on-screen size of the view, deciding if it's small for {@link #POLICY_ADAPTIVE}.
+     * @param width Width in pixels.
+     * @param height Height in pixels.
+     * @param density Screen density.
+     */
+    public void setSize(int width, int height, float density) {
+        mIsSmall = Math.max(width, height) <= SMALL_SIZE_DP * density;
+    }
+
+    /**
+     * @return Frame rate frames are currently limited to, or 0 if unlimited.
+     */
+    public int getTargetFrameRate() {
+        switch (mPolicy) {
+            case POLICY_CAPPED:
+                return mCappedFrameRate;
+            case POLICY_ADAPTIVE:
+                if (PowerSaveMonitor.isPowerSaveMode()) {
+                    return POWER_SAVE_FRAME_RATE;
+                }
+                return mIsSmall ? SMALL_FRAME_RATE : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Decide whether to draw a frame.
+     * @param frameTimeMillis Frame time.
+     * @return True if the frame should be drawn, false to skip it.
+     */
+    public boolean shouldDrawFrame(long frameTimeMillis) {
+        int frameRate = getTargetFrameRate();
+
+        if (frameRate > 0 && mLastFrameTime >= 0 && frameTimeMillis >= mLastFrameTime) {
+            long elapsed = frameTimeMillis - mLastFrameTime;
+            if ((elapsed + FRAME_TOLERANCE_MILLIS) * frameRate < 1000) {
+                return false;
+            }
+        }
+
+        mLastFrameTime = frameTimeMillis;
+        return true;
+    }
+
+    /**
+     * Draw the next frame whatever the policy, such as after an animation started.
+     */
+    public void reset() {
+        mLastFrameTime = -1;
+    }
+}
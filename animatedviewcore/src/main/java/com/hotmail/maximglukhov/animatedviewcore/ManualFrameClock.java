@@ -0,0 +1,48 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+/**
+ * {@link FrameClock} that only moves when told to.
+ * Lets tests drive animations frame by frame, including dropped and late frames.
+ */
+public class ManualFrameClock implements FrameClock {
+
+    /**
+     * Current time in milliseconds.
+     */
+    private long mNowMillis;
+
+    public ManualFrameClock() {
+        this(0);
+    }
+
+    /**
+     * @param nowMillis Initial time in milliseconds.
+     */
+    public ManualFrameClock(long nowMillis) {
+        mNowMillis = nowMillis;
+    }
+
+    /**
+     * Move the clock forward.
+     * @param millis Milliseconds to advance by.
+     */
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Clock can't go back: " + millis);
+        }
+
+        mNowMillis += millis;
+    }
+
+    /**
+     * @param nowMillis New current time in milliseconds.
+     */
+    public void setTime(long nowMillis) {
+        mNowMillis = nowMillis;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return mNowMillis;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.PowerManager;
+
+/**
+ * Process-wide power save mode state, kept up to date by a single broadcast receiver
+ * so reading it every frame costs a field read instead of a system call.
+ */
+final class PowerSaveMonitor {
+
+    private static volatile boolean sIsPowerSaveMode;
+    private static boolean sIsStarted;
+
+    private PowerSaveMonitor() {
+    }
+
+    /**
+     * Start following power save mode. Only the first call does anything.
+     * Must be called on the main thread.
+     * @param context Any context, its application context is kept.
+     */
+    static void start(Context context) {
+        if (sIsStarted || Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            return;
+        }
+
+        sIsStarted = true;
+        startLollipop(context.getApplicationContext());
+    }
+
+    /**
+     * @return True if the device is in power save mode, as of the latest broadcast.
+     */
+    static boolean isPowerSaveMode() {
+        return sIsPowerSaveMode;
+    }
+
+    /**
+     * Override the current state, for the receiver and tests.
+     * @param powerSaveMode True if the device is in power save mode.
+     */
+    static void setPowerSaveMode(boolean powerSaveMode) {
+        sIsPowerSaveMode = powerSaveMode;
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private static void startLollipop(Context context) {
+        final PowerManager powerManager =
+                (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (powerManager == null) {
+            return;
+        }
+
+        context.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                setPowerSaveMode(powerManager.isPowerSaveMode());
+            }
+        }, new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+
+        setPowerSaveMode(powerManager.isPowerSaveMode());
+    }
+}
@@ -0,0 +1,135 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.content.Context;
+import android.graphics.Paint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of values shared by all animated views.
+ *
+ * <p>Paints returned from this cache are shared between instances and must not be modified.
+ * Copy them with {@link Paint#Paint(Paint)} before changing any attribute.</p>
+ *
+ * <p>Meant to be used from the main thread while views are inflated.</p>
+ */
+public final class StyleCache {
+
+    /**
+     * Shared paints by their setup.
+     */
+    private static final Map<PaintKey, Paint> sPaints = new HashMap<>();
+
+    private StyleCache() {
+    }
+
+    /**
+     * Get screen density without querying {@link android.view.WindowManager}.
+     * Density comes from the display metrics resources already resolved for the current
+     * configuration, so it follows configuration changes and costs a field read.
+     * @param context Context to get resources from.
+     * @return Screen density.
+     */
+    public static float getDensity(Context context) {
+        return context.getResources().getDisplayMetrics().density;
+    }
+
+    /**
+     * Get a shared anti-aliased fill paint.
+     * @param color Paint colour.
+     * @return Shared paint, must not be modified.
+     */
+    public static Paint getFillPaint(int color) {
+        return getPaint(new PaintKey(color, Paint.Style.FILL, 0.0f, null, null));
+    }
+
+    /**
+     * Get a shared anti-aliased stroke paint.
+     * @param color Paint colour.
+     * @param strokeWidth Stroke width in pixels.
+     * @param cap Stroke cap.
+     * @param join Stroke join.
+     * @return Shared paint, must not be modified.
+     */
+    public static Paint getStrokePaint(int color, float strokeWidth, Paint.Cap cap,
+                                       Paint.Join join) {
+        return getPaint(new PaintKey(color, Paint.Style.STROKE, strokeWidth, cap, join));
+    }
+
+    /**
+     * Drop all shared paints. Paints already handed out stay valid.
+     */
+    public static synchronized void clear() {
+        sPaints.clear();
+    }
+
+    private static synchronized Paint getPaint(PaintKey key) {
+        Paint paint = sPaints.get(key);
+
+        if (paint == null) {
+            paint = new Paint();
+            paint.setColor(key.color);
+            paint.setStyle(key.style);
+            paint.setAntiAlias(true);
+
+            if (key.style == Paint.Style.STROKE) {
+                paint.setStrokeWidth(key.strokeWidth);
+                paint.setStrokeCap(key.cap);
+                paint.setStrokeJoin(key.join);
+            }
+
+            sPaints.put(key, paint);
+        }
+
+        return paint;
+    }
+
+    /**
+     * Identifies the setup of a shared paint.
+     */
+    private static final class PaintKey {
+
+        private final int color;
+        private final Paint.Style style;
+        private final float strokeWidth;
+        private final Paint.Cap cap;
+        private final Paint.Join join;
+
+        PaintKey(int color, Paint.Style style, float strokeWidth, Paint.Cap cap,
+                 Paint.Join join) {
+            this.color = color;
+            this.style = style;
+            this.strokeWidth = strokeWidth;
+            this.cap = cap;
+            this.join = join;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PaintKey)) {
+                return false;
+            }
+
+            PaintKey other = (PaintKey) o;
+            return color == other.color
+                    && style == other.style
+                    && Float.compare(strokeWidth, other.strokeWidth) == 0
+                    && cap == other.cap
+                    && join == other.join;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = color;
+            result = 31 * result + style.hashCode();
+            result = 31 * result + Float.floatToIntBits(strokeWidth);
+            result = 31 * result + (cap != null ? cap.hashCode() : 0);
+            result = 31 * result + (join != null ? join.hashCode() : 0);
+            return result;
+        }
+    }
+}
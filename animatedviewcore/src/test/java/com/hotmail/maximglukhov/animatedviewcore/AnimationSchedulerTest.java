@@ -0,0 +1,134 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for {@link AnimationScheduler}, with frame callbacks run by hand.
+ */
+public class AnimationSchedulerTest {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private TestScheduler mScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        mScheduler = new TestScheduler();
+    }
+
+    @Test
+    public void clients_shareFrameTime() throws Exception {
+        RecordingClient first = new RecordingClient(true);
+        RecordingClient second = new RecordingClient(true);
+
+        mScheduler.register(first);
+        mScheduler.register(second);
+        mScheduler.register(first);
+        assertEquals(1, mScheduler.postCount);
+        assertEquals(2, mScheduler.getClientCount());
+
+        mScheduler.doFrame(1000 * NANOS_PER_MILLI);
+        assertEquals(1000, first.lastFrameTime);
+        assertEquals(1000, second.lastFrameTime);
+        assertEquals(1, first.frameCount);
+
+        // Still active, so the next frame was requested.
+        assertTrue(mScheduler.isFramePosted);
+    }
+
+    @Test
+    public void endedClients_areDropped() throws Exception {
+        RecordingClient ending = new RecordingClient(false);
+        mScheduler.register(ending);
+
+        mScheduler.doFrame(16 * NANOS_PER_MILLI);
+        assertEquals(1, ending.frameCount);
+        assertFalse(mScheduler.isRegistered(ending));
+
+        // No active animation left, no more frames.
+        assertFalse(mScheduler.isFramePosted);
+    }
+
+    @Test
+    public void unregisteringDuringFrame_skipsClient() throws Exception {
+        final RecordingClient second = new RecordingClient(true);
+        RecordingClient first = new RecordingClient(true) {
+            @Override
+            public boolean onAnimationFrame(long frameTimeMillis) {
+                mScheduler.unregister(second);
+                return super.onAnimationFrame(frameTimeMillis);
+            }
+        };
+
+        mScheduler.register(first);
+        mScheduler.register(second);
+        mScheduler.doFrame(16 * NANOS_PER_MILLI);
+
+        assertEquals(0, second.frameCount);
+        assertEquals(1, mScheduler.getClientCount());
+
+        mScheduler.unregister(first);
+        assertFalse(mScheduler.isFramePosted);
+    }
+
+    @Test
+    public void frameTime_neverGoesBack() throws Exception {
+        RecordingClient client = new RecordingClient(true);
+        mScheduler.register(client);
+
+        mScheduler.doFrame(500 * NANOS_PER_MILLI);
+        mScheduler.doFrame(400 * NANOS_PER_MILLI);
+        assertEquals(500, client.lastFrameTime);
+    }
+
+    /**
+     * Records frame requests instead of posting them to a {@link android.view.Choreographer}.
+     */
+    private static class TestScheduler extends AnimationScheduler {
+
+        int postCount;
+        boolean isFramePosted;
+
+        @Override
+        void postFrameCallback() {
+            postCount++;
+            isFramePosted = true;
+        }
+
+        @Override
+        void removeFrameCallback() {
+            isFramePosted = false;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isFramePosted = false;
+            super.doFrame(frameTimeNanos);
+        }
+    }
+
+    private static class RecordingClient implements AnimationScheduler.Client {
+
+        private final boolean mIsActive;
+
+        int frameCount;
+        long lastFrameTime = -1;
+
+        RecordingClient(boolean isActive) {
+            mIsActive = isActive;
+        }
+
+        @Override
+        public boolean onAnimationFrame(long frameTimeMillis) {
+            frameCount++;
+            lastFrameTime = frameTimeMillis;
+
+            return mIsActive;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for {@link AnimationTimeline}.
+ */
+public class AnimationTimelineTest {
+
+    private static final float DELTA = 0.0001f;
+
+    @Test
+    public void stagesFollowSharedClock() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        int first = timeline.addStage(0, 100, null);
+        int second = timeline.addStage(100, 100, null);
+
+        assertEquals(200, timeline.getDuration());
+
+        timeline.start(1000);
+        assertTrue(timeline.update(1050));
+        assertEquals(0.5f, timeline.getStageFraction(first), DELTA);
+        assertEquals(0.0f, timeline.getStageFraction(second), DELTA);
+
+        assertTrue(timeline.update(1150));
+        assertEquals(1.0f, timeline.getStageFraction(first), DELTA);
+        assertEquals(0.5f, timeline.getStageFraction(second), DELTA);
+    }
+
+    @Test
+    public void lateFrameJumpsToFinalState() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        int first = timeline.addStage(0, 100, null);
+        int second = timeline.addStage(100, 100, null);
+
+        timeline.start(0);
+        timeline.update(16);
+
+        // UI thread stalled well past the end of both stages.
+        assertFalse(timeline.update(5000));
+        assertTrue(timeline.isFinished());
+        assertEquals(1.0f, timeline.getStageFraction(first), DELTA);
+        assertEquals(1.0f, timeline.getStageFraction(second), DELTA);
+    }
+
+    @Test
+    public void loopingKeepsPhaseAcrossStalls() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        int stage = timeline.addStage(0, 100, null);
+        timeline.setLooping(true);
+
+        timeline.start(0);
+        assertTrue(timeline.update(1025));
+        assertEquals(25, timeline.getElapsed());
+        assertEquals(0.25f, timeline.getStageFraction(stage), DELTA);
+        assertFalse(timeline.isFinished());
+    }
+
+    @Test
+    public void pauseAndResumeKeepElapsedTime() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        timeline.addStage(0, 100, null);
+
+        timeline.start(0);
+        timeline.pause(40);
+        assertFalse(timeline.update(500));
+        assertEquals(40, timeline.getElapsed());
+
+        timeline.resume(1000);
+        timeline.update(1030);
+        assertEquals(70, timeline.getElapsed());
+    }
+
+    @Test
+    public void reversedRunsBackToStart() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        int stage = timeline.addStage(0, 100, null);
+
+        timeline.seek(80);
+        timeline.setReversed(true, 0);
+        timeline.resume(0);
+
+        assertTrue(timeline.update(30));
+        assertEquals(50, timeline.getElapsed());
+        assertEquals(0.5f, timeline.getStageFraction(stage), DELTA);
+
+        assertFalse(timeline.update(200));
+        assertTrue(timeline.isFinished());
+        assertEquals(0.0f, timeline.getStageFraction(stage), DELTA);
+    }
+
+    @Test
+    public void removingStagesKeepsEarlierOnes() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        int first = timeline.addStage(0, 100, null);
+        timeline.addStage(100, 100, null);
+        timeline.addStage(200, 100, null);
+        assertEquals(300, timeline.getDuration());
+
+        timeline.removeStages(1);
+        assertEquals(1, timeline.getStageCount());
+        assertEquals(100, timeline.getDuration());
+
+        timeline.seek(50);
+        assertEquals(0.5f, timeline.getStageFraction(first), DELTA);
+    }
+}
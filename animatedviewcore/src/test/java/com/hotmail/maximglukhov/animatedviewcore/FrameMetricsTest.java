@@ -0,0 +1,63 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link FrameMetrics}.
+ */
+public class FrameMetricsTest {
+
+    @Test
+    public void milestones_lateAndSkipped() throws Exception {
+        AnimationTimeline timeline = new AnimationTimeline();
+        timeline.addStage(0, 100, null);
+        timeline.addStage(100, 20, null);
+        timeline.addStage(120, 100, null);
+
+        FrameMetrics metrics = new FrameMetrics();
+        timeline.start(0);
+
+        // Smooth frames into the first stage.
+        for (long now = 0; now <= 96; now += 16) {
+            timeline.update(now);
+            metrics.recordStages(timeline);
+        }
+
+        // Late frame: first stage ends 40ms late, second stage is skipped entirely,
+        // third stage starts 20ms late which is still acceptable.
+        timeline.update(140);
+        metrics.recordStages(timeline);
+
+        FrameMetrics.Snapshot snapshot = metrics.getSnapshot();
+        assertEquals(1, snapshot.lateMilestones);
+        assertEquals(1, snapshot.skippedMilestones);
+    }
+
+    @Test
+    public void histogramsAndOffscreenTime() throws Exception {
+        FrameMetrics metrics = new FrameMetrics();
+
+        metrics.recordDraw(50000L);
+        metrics.recordDraw(3000000L);
+        metrics.recordDraw(30000000L);
+
+        metrics.recordFrame(0, 1000, true);
+        metrics.recordFrame(16, 1000, false);
+        metrics.recordFrame(32, 1000, false);
+        // Animation stopped for a while in between.
+        metrics.recordFrame(5000, 1000, false);
+
+        FrameMetrics.Snapshot snapshot = metrics.getSnapshot();
+        assertEquals(3, snapshot.framesDrawn);
+        assertEquals(1, snapshot.drawHistogram[0]);
+        assertEquals(1, snapshot.drawHistogram[5]);
+        assertEquals(1, snapshot.drawHistogram[FrameMetrics.BUCKET_COUNT - 1]);
+        assertEquals(4000000L,
+                FrameMetrics.Snapshot.getPercentileNanos(snapshot.drawHistogram, 0.5f));
+
+        assertEquals(4, snapshot.framesAnimated);
+        assertEquals(32, snapshot.offscreenMillis);
+    }
+}
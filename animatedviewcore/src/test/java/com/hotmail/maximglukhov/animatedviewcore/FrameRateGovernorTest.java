@@ -0,0 +1,70 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link FrameRateGovernor}.
+ */
+public class FrameRateGovernorTest {
+
+    private static final float DENSITY = 2.0f;
+
+    @After
+    public void tearDown() throws Exception {
+        PowerSaveMonitor.setPowerSaveMode(false);
+    }
+
+    @Test
+    public void full_drawsEveryFrame() throws Exception {
+        FrameRateGovernor governor = new FrameRateGovernor();
+
+        assertEquals(60, countDrawnFrames(governor, 1000, 60));
+    }
+
+    @Test
+    public void capped_halvesFramesAtSixtyHertz() throws Exception {
+        FrameRateGovernor governor = new FrameRateGovernor();
+        governor.setPolicy(FrameRateGovernor.POLICY_CAPPED);
+
+        assertEquals(30, countDrawnFrames(governor, 1000, 60));
+
+        governor.setCappedFrameRate(20);
+        governor.reset();
+        assertEquals(20, countDrawnFrames(governor, 1000, 60));
+    }
+
+    @Test
+    public void adaptive_followsSizeAndPowerSave() throws Exception {
+        FrameRateGovernor governor = new FrameRateGovernor();
+        governor.setPolicy(FrameRateGovernor.POLICY_ADAPTIVE);
+
+        governor.setSize(400, 40, DENSITY);
+        assertEquals(0, governor.getTargetFrameRate());
+
+        // 36dp spinner.
+        governor.setSize(72, 72, DENSITY);
+        assertEquals(FrameRateGovernor.SMALL_FRAME_RATE, governor.getTargetFrameRate());
+
+        PowerSaveMonitor.setPowerSaveMode(true);
+        assertEquals(FrameRateGovernor.POWER_SAVE_FRAME_RATE, governor.getTargetFrameRate());
+    }
+
+    /**
+     * Offer frames at a display refresh rate and count the drawn ones.
+     */
+    private static int countDrawnFrames(FrameRateGovernor governor, long durationMillis,
+                                        int refreshRate) {
+        int drawn = 0;
+        for (int frame = 0; frame < durationMillis * refreshRate / 1000; frame++) {
+            // Frame times are rounded to milliseconds like the scheduler's.
+            if (governor.shouldDrawFrame(frame * 1000L / refreshRate)) {
+                drawn++;
+            }
+        }
+
+        return drawn;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+/**
+ * {@link AnimationScheduler} whose frames only come when told to.
+ * Lets tests drive views on their default clock frame by frame, as the
+ * {@link android.view.Choreographer} would.
+ *
+ * <p>Views use the shared scheduler they are created with, so create them after
+ * {@link #install()} and call {@link #uninstall()} once done. Only available to tests:
+ * this class lives in the test helper module, in the core package to reach the
+ * scheduler's frame hooks.</p>
+ */
+public class ManualAnimationScheduler extends AnimationScheduler {
+
+    /**
+     * Determines if a frame was requested since the previous one.
+     */
+    private boolean mIsFrameRequested;
+
+    /**
+     * Time of the latest frame in milliseconds.
+     */
+    private long mFrameTimeMillis;
+
+    /**
+     * Make a new manual scheduler the shared one.
+     * @return Installed scheduler.
+     */
+    public static ManualAnimationScheduler install() {
+        ManualAnimationScheduler scheduler = new ManualAnimationScheduler();
+        setInstance(scheduler);
+
+        return scheduler;
+    }
+
+    /**
+     * Go back to a scheduler driven by the {@link android.view.Choreographer}.
+     */
+    public static void uninstall() {
+        setInstance(null);
+    }
+
+    /**
+     * @return True if a client waits for the next frame.
+     */
+    public boolean isFrameRequested() {
+        return mIsFrameRequested;
+    }
+
+    /**
+     * Run the next frame, if one was requested.
+     * @param intervalMillis Time since the previous frame.
+     * @return True if the frame ran.
+     */
+    public boolean frame(long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Clock can't go back: " + intervalMillis);
+        }
+
+        mFrameTimeMillis = Math.max(mFrameTimeMillis, uptimeMillis()) + intervalMillis;
+        if (!mIsFrameRequested) {
+            return false;
+        }
+
+        doFrame(mFrameTimeMillis * 1000000L);
+        return true;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        // Time passes with every frame, whether it ran or not, like on a device.
+        return Math.max(super.uptimeMillis(), mFrameTimeMillis);
+    }
+
+    @Override
+    void postFrameCallback() {
+        mIsFrameRequested = true;
+    }
+
+    @Override
+    void removeFrameCallback() {
+        mIsFrameRequested = false;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mIsFrameRequested = false;
+        super.doFrame(frameTimeNanos);
+    }
+}
@@ -0,0 +1,181 @@
+package com.hotmail.maximglukhov.animatedviewcore;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+
+/**
+ * {@link Canvas} that records draw operations instead of drawing.
+ * Lets tests and benchmarks check what a frame draws without rasterizing it.
+ *
+ * <p>Dots are recorded as they're drawn by the views: every circle adds a dot, while a
+ * {@link #drawPoints(float[], int, int, Paint)} batch replaces the dots, since trails are
+ * batched before the dots themselves. Recording doesn't allocate.</p>
+ */
+public class RecordingCanvas extends Canvas {
+
+    /**
+     * Amount of dot positions kept. Further dots are counted only.
+     */
+    public static final int MAX_RECORDED_DOTS = 512;
+
+    private final float[] mDotPositions = new float[MAX_RECORDED_DOTS * 2];
+    private int mDotCount;
+
+    private int mDrawOpCount;
+    private int mCircleCount;
+    private int mPathCount;
+    private int mBitmapCount;
+    private int mPointCount;
+
+    private float mLastCircleRadius;
+    private Paint mLastCirclePaint;
+    private Paint mLastPathPaint;
+    private int mColor;
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mDrawOpCount++;
+        mCircleCount++;
+        mLastCircleRadius = radius;
+        mLastCirclePaint = paint;
+
+        if (mDotCount < MAX_RECORDED_DOTS) {
+            mDotPositions[mDotCount * 2] = cx;
+            mDotPositions[mDotCount * 2 + 1] = cy;
+        }
+        if (mDotCount < Integer.MAX_VALUE) {
+            // Benchmarks draw millions of frames without resetting.
+            mDotCount++;
+        }
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        mDrawOpCount++;
+        mPointCount += count / 2;
+
+        System.arraycopy(pts, offset, mDotPositions, 0,
+                Math.min(count, mDotPositions.length));
+        mDotCount = count / 2;
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        mDrawOpCount++;
+        mPathCount++;
+        mLastPathPaint = paint;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        mDrawOpCount++;
+        mBitmapCount++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        mDrawOpCount++;
+        mBitmapCount++;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        mDrawOpCount++;
+        mColor = color;
+    }
+
+    /**
+     * @return Amount of draw operations since the last reset.
+     */
+    public int getDrawOpCount() {
+        return mDrawOpCount;
+    }
+
+    public int getCircleCount() {
+        return mCircleCount;
+    }
+
+    public int getPathCount() {
+        return mPathCount;
+    }
+
+    public int getBitmapCount() {
+        return mBitmapCount;
+    }
+
+    /**
+     * @return Amount of points drawn with {@link #drawPoints(float[], int, int, Paint)}.
+     */
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    public float getLastCircleRadius() {
+        return mLastCircleRadius;
+    }
+
+    /**
+     * @return Paint of the latest circle, or null.
+     */
+    public Paint getLastCirclePaint() {
+        return mLastCirclePaint;
+    }
+
+    /**
+     * @return Paint of the latest path, or null.
+     */
+    public Paint getLastPathPaint() {
+        return mLastPathPaint;
+    }
+
+    /**
+     * @return Colour of the latest {@link #drawColor(int)}.
+     */
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * @return Amount of dots of the frame, see the class description.
+     */
+    public int getDotCount() {
+        return mDotCount;
+    }
+
+    /**
+     * @param index Coordinate index, x and y of every dot in turn.
+     * @return Recorded dot coordinate.
+     */
+    public float getDotPosition(int index) {
+        return mDotPositions[index];
+    }
+
+    /**
+     * @return Copy of the recorded dot positions, x and y of every dot.
+     */
+    public float[] copyDotPositions() {
+        float[] copy = new float[Math.min(mDotCount, MAX_RECORDED_DOTS) * 2];
+        System.arraycopy(mDotPositions, 0, copy, 0, copy.length);
+
+        return copy;
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        mDotCount = 0;
+        mDrawOpCount = 0;
+        mCircleCount = 0;
+        mPathCount = 0;
+        mBitmapCount = 0;
+        mPointCount = 0;
+        mLastCircleRadius = 0.0f;
+        mLastCirclePaint = null;
+        mLastPathPaint = null;
+        mColor = 0;
+    }
+}
@@ -38,9 +38,27 @@ public class CheckMarkDemoFragment extends Fragment implements View.OnClickListe
         Button sampleButton = (Button) layout.findViewById(R.id.sampleButton);
         sampleButton.setOnClickListener(this);
 
+        setUpFrameMetricsOverlay(layout);
+
         return layout;
     }
 
+    /**
+     * Show frame metrics of the demo view in debug builds.
+     */
+    private void setUpFrameMetricsOverlay(View layout) {
+        if (!BuildConfig.DEBUG) {
+            return;
+        }
+
+        mCheckMark.setFrameMetricsEnabled(true);
+
+        FrameMetricsOverlay overlay =
+                (FrameMetricsOverlay) layout.findViewById(R.id.frame_metrics_overlay);
+        overlay.setFrameMetrics(mCheckMark.getFrameMetrics());
+        overlay.setVisibility(View.VISIBLE);
+    }
+
     @Override
     public void onClick(View view) {
         mCheckMark.clearAnimation();
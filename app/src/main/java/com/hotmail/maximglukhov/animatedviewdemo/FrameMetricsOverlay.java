@@ -0,0 +1,108 @@
+package com.hotmail.maximglukhov.animatedviewdemo;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+import com.hotmail.maximglukhov.animatedviewcore.FrameMetrics;
+
+import java.util.Locale;
+
+/**
+ * Debug overlay showing {@link FrameMetrics} of a demo view.
+ */
+public class FrameMetricsOverlay extends TextView implements FrameMetrics.Listener {
+
+    /**
+     * Minimum time between text updates, so the overlay doesn't redraw every frame itself.
+     */
+    private static final long UPDATE_INTERVAL_MILLIS = 500;
+
+    private static final float NANOS_PER_MILLI = 1000000.0f;
+
+    private FrameMetrics mFrameMetrics;
+    private final FrameMetrics.Snapshot mSnapshot = new FrameMetrics.Snapshot();
+    private long mLastUpdateTime = -1;
+
+    public FrameMetricsOverlay(Context context) {
+        super(context);
+    }
+
+    public FrameMetricsOverlay(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public FrameMetricsOverlay(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * @param frameMetrics Metrics to show, or null to stop showing metrics.
+     */
+    public void setFrameMetrics(FrameMetrics frameMetrics) {
+        if (mFrameMetrics != null) {
+            mFrameMetrics.setListener(null);
+        }
+
+        mFrameMetrics = frameMetrics;
+        mLastUpdateTime = -1;
+
+        if (frameMetrics != null) {
+            frameMetrics.setListener(this);
+            updateText();
+        } else {
+            setText(null);
+        }
+    }
+
+    @Override
+    public void onFrameMetricsUpdated(FrameMetrics metrics) {
+        long now = SystemClock.uptimeMillis();
+        if (mLastUpdateTime >= 0 && now - mLastUpdateTime < UPDATE_INTERVAL_MILLIS) {
+            return;
+        }
+
+        mLastUpdateTime = now;
+        updateText();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mFrameMetrics != null) {
+            mFrameMetrics.setListener(null);
+        }
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        if (mFrameMetrics != null) {
+            mFrameMetrics.setListener(this);
+        }
+    }
+
+    private void updateText() {
+        mFrameMetrics.getSnapshot(mSnapshot);
+
+        setText(String.format(Locale.US,
+                "frames %d drawn, %d animated\n"
+                        + "draw p50 %.2fms p90 %.2fms, frame p90 %.2fms\n"
+                        + "milestones %d late, %d skipped\n"
+                        + "off-screen %dms",
+                mSnapshot.framesDrawn, mSnapshot.framesAnimated,
+                toMillis(FrameMetrics.Snapshot.getPercentileNanos(mSnapshot.drawHistogram, 0.5f)),
+                toMillis(FrameMetrics.Snapshot.getPercentileNanos(mSnapshot.drawHistogram, 0.9f)),
+                toMillis(FrameMetrics.Snapshot.getPercentileNanos(mSnapshot.frameHistogram, 0.9f)),
+                mSnapshot.lateMilestones, mSnapshot.skippedMilestones,
+                mSnapshot.offscreenMillis));
+    }
+
+    private static float toMillis(long nanos) {
+        // Last bucket has no upper bound.
+        return nanos == Long.MAX_VALUE ? Float.POSITIVE_INFINITY : nanos / NANOS_PER_MILLI;
+    }
+}
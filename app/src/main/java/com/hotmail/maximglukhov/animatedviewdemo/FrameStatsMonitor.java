@@ -0,0 +1,135 @@
+package com.hotmail.maximglukhov.animatedviewdemo;
+
+import android.view.Choreographer;
+
+/**
+ * Measures frame times of the whole UI from {@link Choreographer} frame callbacks
+ * and reports them once per second.
+ */
+public class FrameStatsMonitor implements Choreographer.FrameCallback {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final float NANOS_PER_MILLI = 1000000.0f;
+
+    /**
+     * Frames arriving later than this many frame intervals count as having dropped frames.
+     */
+    private static final float DROPPED_FRAME_THRESHOLD = 1.5f;
+
+    /**
+     * Interval between two frames at the display refresh rate.
+     */
+    private final long mFrameIntervalNanos;
+
+    private final Listener mListener;
+
+    private boolean mIsRunning;
+
+    /**
+     * Time of the previous frame, or -1 before the first frame.
+     */
+    private long mLastFrameTimeNanos = -1;
+    /**
+     * Start of the current reporting window.
+     */
+    private long mWindowStartNanos;
+    private int mWindowFrameCount;
+    private long mWindowMaxIntervalNanos;
+    private int mWindowDroppedFrames;
+    private long mTotalDroppedFrames;
+
+    /**
+     * @param refreshRate Display refresh rate in frames per second.
+     * @param listener Listener notified once per second.
+     */
+    public FrameStatsMonitor(float refreshRate, Listener listener) {
+        mFrameIntervalNanos = (long) (NANOS_PER_SECOND / refreshRate);
+        mListener = listener;
+    }
+
+    /**
+     * Start measuring. Frames are requested continuously until {@link #stop()}.
+     */
+    public void start() {
+        if (mIsRunning) {
+            return;
+        }
+
+        mIsRunning = true;
+        mLastFrameTimeNanos = -1;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Stop measuring.
+     */
+    public void stop() {
+        mIsRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    /**
+     * Forget dropped frames counted so far.
+     */
+    public void resetTotals() {
+        mTotalDroppedFrames = 0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mIsRunning) {
+            return;
+        }
+
+        if (mLastFrameTimeNanos < 0) {
+            startWindow(frameTimeNanos);
+        } else {
+            long interval = frameTimeNanos - mLastFrameTimeNanos;
+
+            mWindowFrameCount++;
+            mWindowMaxIntervalNanos = Math.max(mWindowMaxIntervalNanos, interval);
+            if (interval > mFrameIntervalNanos * DROPPED_FRAME_THRESHOLD) {
+                mWindowDroppedFrames += Math.round((float) interval / mFrameIntervalNanos) - 1;
+            }
+
+            long windowNanos = frameTimeNanos - mWindowStartNanos;
+            if (windowNanos >= NANOS_PER_SECOND) {
+                mTotalDroppedFrames += mWindowDroppedFrames;
+
+                float framesPerSecond = mWindowFrameCount * (float) NANOS_PER_SECOND / windowNanos;
+                float averageMillis = windowNanos / NANOS_PER_MILLI / mWindowFrameCount;
+                mListener.onFrameStats(framesPerSecond, averageMillis,
+                        mWindowMaxIntervalNanos / NANOS_PER_MILLI,
+                        mWindowDroppedFrames, mTotalDroppedFrames);
+
+                startWindow(frameTimeNanos);
+            }
+        }
+
+        mLastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void startWindow(long frameTimeNanos) {
+        mWindowStartNanos = frameTimeNanos;
+        mWindowFrameCount = 0;
+        mWindowMaxIntervalNanos = 0;
+        mWindowDroppedFrames = 0;
+    }
+
+    /**
+     * Notified once per second while running.
+     */
+    public interface Listener {
+
+        /**
+         * @param framesPerSecond Frames per second over the last second.
+         * @param averageFrameMillis Average time between frames.
+         * @param maxFrameMillis Longest time between two frames.
+         * @param droppedFrames Frames dropped over the last second.
+         * @param totalDroppedFrames Frames dropped since started or last reset.
+         */
+        void onFrameStats(float framesPerSecond, float averageFrameMillis, float maxFrameMillis,
+                          int droppedFrames, long totalDroppedFrames);
+    }
+}
@@ -75,6 +75,9 @@ public class MainActivity extends AppCompatActivity
             case R.id.demo_windowsxprogressbar:
                 contentFragment = WindowsXProgressBarDemoFragment.newInstance();
                 break;
+            case R.id.demo_stress_test:
+                contentFragment = StressTestFragment.newInstance();
+                break;
         }
 
         if (contentFragment != null) {
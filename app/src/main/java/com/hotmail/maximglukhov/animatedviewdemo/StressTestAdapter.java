@@ -0,0 +1,126 @@
+package com.hotmail.maximglukhov.animatedviewdemo;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.hotmail.maximglukhov.checkmarkviewlib.CheckMarkView;
+import com.hotmail.maximglukhov.windowsxprogressbar.WindowsXProgressBar;
+
+/**
+ * Grid of check marks and circular progress bars, alternating.
+ */
+public class StressTestAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    public static final int MODE_PER_DOT = 0;
+    public static final int MODE_SINGLE_CLOCK = 1;
+    public static final int MODE_RENDER_THREAD = 2;
+
+    private static final int TYPE_CHECK_MARK = 0;
+    private static final int TYPE_PROGRESS_BAR = 1;
+
+    private int mItemCount;
+    private int mDotCount;
+    private int mMode = MODE_PER_DOT;
+
+    /**
+     * @param itemCount Amount of views.
+     * @param dotCount Dots of every progress bar.
+     */
+    public StressTestAdapter(int itemCount, int dotCount) {
+        mItemCount = itemCount;
+        mDotCount = dotCount;
+    }
+
+    /**
+     * @param itemCount Amount of views.
+     */
+    public void setItemCount(int itemCount) {
+        if (mItemCount != itemCount) {
+            mItemCount = itemCount;
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * @param dotCount Dots of every progress bar.
+     */
+    public void setDotCount(int dotCount) {
+        if (mDotCount != dotCount) {
+            mDotCount = dotCount;
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * @param mode Animation mode of progress bars, one of the MODE constants.
+     */
+    public void setMode(int mode) {
+        if (mMode != mode) {
+            mMode = mode;
+            notifyDataSetChanged();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return position % 2 == 0 ? TYPE_CHECK_MARK : TYPE_PROGRESS_BAR;
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+
+        if (viewType == TYPE_CHECK_MARK) {
+            return new CheckMarkViewHolder(
+                    inflater.inflate(R.layout.item_stress_test_check_mark, parent, false));
+        } else {
+            return new ProgressBarViewHolder(
+                    inflater.inflate(R.layout.item_stress_test_progress_bar, parent, false));
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        if (holder instanceof CheckMarkViewHolder) {
+            CheckMarkView checkMark = ((CheckMarkViewHolder) holder).checkMark;
+            checkMark.clearAnimation();
+            checkMark.runAnimations();
+        } else {
+            WindowsXProgressBar progressBar = ((ProgressBarViewHolder) holder).progressBar;
+            progressBar.setEngine(mMode == MODE_SINGLE_CLOCK
+                    ? WindowsXProgressBar.ENGINE_SINGLE_CLOCK : WindowsXProgressBar.ENGINE_PER_DOT);
+            progressBar.setRenderThreadAnimationEnabled(mMode == MODE_RENDER_THREAD);
+            progressBar.setDotCount(mDotCount);
+        }
+    }
+
+    private static class CheckMarkViewHolder extends RecyclerView.ViewHolder {
+
+        final CheckMarkView checkMark;
+
+        CheckMarkViewHolder(View itemView) {
+            super(itemView);
+
+            checkMark = (CheckMarkView) itemView.findViewById(R.id.stress_test_checkmark);
+        }
+    }
+
+    private static class ProgressBarViewHolder extends RecyclerView.ViewHolder {
+
+        final WindowsXProgressBar progressBar;
+
+        ProgressBarViewHolder(View itemView) {
+            super(itemView);
+
+            progressBar = (WindowsXProgressBar) itemView.findViewById(
+                    R.id.stress_test_windowsxprogressbar);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.hotmail.maximglukhov.animatedviewdemo;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.SeekBar;
+import android.widget.Spinner;
+import android.widget.TextView;
+
+import com.hotmail.maximglukhov.checkmarkviewlib.CheckMarkView;
+
+/**
+ * Hundreds of check marks and progress bars in a scrolling grid, with live frame statistics.
+ */
+public class StressTestFragment extends Fragment implements FrameStatsMonitor.Listener,
+        SeekBar.OnSeekBarChangeListener, AdapterView.OnItemSelectedListener {
+
+    /**
+     * View count changes in steps of this.
+     */
+    private static final int VIEW_COUNT_STEP = 10;
+    private static final int DEFAULT_VIEW_COUNT = 300;
+    private static final int MIN_DOT_COUNT = 1;
+    private static final int DEFAULT_DOT_COUNT = 5;
+
+    /**
+     * Check marks on screen are replayed this often so they keep animating.
+     */
+    private static final long CHECK_MARK_REPLAY_INTERVAL_MILLIS = 1500;
+
+    private RecyclerView mRecyclerView;
+    private StressTestAdapter mAdapter;
+
+    private SeekBar mViewCountSeekBar;
+    private TextView mViewCountText;
+    private SeekBar mDotCountSeekBar;
+    private TextView mDotCountText;
+    private TextView mFrameStatsText;
+
+    private FrameStatsMonitor mFrameStatsMonitor;
+
+    private final Runnable mReplayCheckMarksRunnable = new Runnable() {
+        @Override
+        public void run() {
+            for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+                View child = mRecyclerView.getChildAt(i);
+                if (child instanceof CheckMarkView) {
+                    CheckMarkView checkMark = (CheckMarkView) child;
+                    checkMark.clearAnimation();
+                    checkMark.runAnimations();
+                }
+            }
+
+            mRecyclerView.postDelayed(this, CHECK_MARK_REPLAY_INTERVAL_MILLIS);
+        }
+    };
+
+    public StressTestFragment() {
+        // Required empty public constructor
+    }
+
+    public static StressTestFragment newInstance() {
+        StressTestFragment fragment = new StressTestFragment();
+        return fragment;
+    }
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container,
+                             Bundle savedInstanceState) {
+        // Inflate the layout for this fragment.
+        View layout = inflater.inflate(R.layout.fragment_stress_test, container, false);
+
+        mAdapter = new StressTestAdapter(DEFAULT_VIEW_COUNT, DEFAULT_DOT_COUNT);
+
+        int cellSize = getResources().getDimensionPixelSize(R.dimen.stress_test_cell_size);
+        int spanCount = Math.max(1, getResources().getDisplayMetrics().widthPixels / cellSize);
+
+        mRecyclerView = (RecyclerView) layout.findViewById(R.id.stress_test_list);
+        mRecyclerView.setLayoutManager(new GridLayoutManager(getContext(), spanCount));
+        mRecyclerView.setAdapter(mAdapter);
+
+        mViewCountText = (TextView) layout.findViewById(R.id.stress_test_view_count);
+        mViewCountSeekBar = (SeekBar) layout.findViewById(R.id.stress_test_view_count_seek_bar);
+        mViewCountSeekBar.setProgress(DEFAULT_VIEW_COUNT / VIEW_COUNT_STEP);
+        mViewCountSeekBar.setOnSeekBarChangeListener(this);
+
+        mDotCountText = (TextView) layout.findViewById(R.id.stress_test_dot_count);
+        mDotCountSeekBar = (SeekBar) layout.findViewById(R.id.stress_test_dot_count_seek_bar);
+        mDotCountSeekBar.setProgress(DEFAULT_DOT_COUNT - MIN_DOT_COUNT);
+        mDotCountSeekBar.setOnSeekBarChangeListener(this);
+
+        Spinner modeSpinner = (Spinner) layout.findViewById(R.id.stress_test_mode);
+        ArrayAdapter<CharSequence> modeAdapter = ArrayAdapter.createFromResource(getContext(),
+                R.array.stress_test_modes, android.R.layout.simple_spinner_item);
+        modeAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        modeSpinner.setAdapter(modeAdapter);
+        modeSpinner.setOnItemSelectedListener(this);
+
+        mFrameStatsText = (TextView) layout.findViewById(R.id.stress_test_frame_stats);
+
+        WindowManager windowManager =
+                (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        mFrameStatsMonitor = new FrameStatsMonitor(
+                windowManager.getDefaultDisplay().getRefreshRate(), this);
+
+        updateCountTexts();
+
+        return layout;
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        mFrameStatsMonitor.start();
+        mRecyclerView.postDelayed(mReplayCheckMarksRunnable, CHECK_MARK_REPLAY_INTERVAL_MILLIS);
+    }
+
+    @Override
+    public void onPause() {
+        mFrameStatsMonitor.stop();
+        mRecyclerView.removeCallbacks(mReplayCheckMarksRunnable);
+
+        super.onPause();
+    }
+
+    @Override
+    public void onFrameStats(float framesPerSecond, float averageFrameMillis,
+                             float maxFrameMillis, int droppedFrames, long totalDroppedFrames) {
+        mFrameStatsText.setText(getString(R.string.stress_test_frame_stats, framesPerSecond,
+                averageFrameMillis, maxFrameMillis, droppedFrames, totalDroppedFrames));
+    }
+
+    @Override
+    public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+        updateCountTexts();
+    }
+
+    @Override
+    public void onStartTrackingTouch(SeekBar seekBar) {
+    }
+
+    @Override
+    public void onStopTrackingTouch(SeekBar seekBar) {
+        // Rebinding hundreds of views while dragging would only measure the rebinding.
+        mAdapter.setItemCount(getViewCount());
+        mAdapter.setDotCount(getDotCount());
+        mFrameStatsMonitor.resetTotals();
+    }
+
+    @Override
+    public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+        mAdapter.setMode(position);
+        mFrameStatsMonitor.resetTotals();
+    }
+
+    @Override
+    public void onNothingSelected(AdapterView<?> parent) {
+    }
+
+    private int getViewCount() {
+        return mViewCountSeekBar.getProgress() * VIEW_COUNT_STEP;
+    }
+
+    private int getDotCount() {
+        return mDotCountSeekBar.getProgress() + MIN_DOT_COUNT;
+    }
+
+    private void updateCountTexts() {
+        mViewCountText.setText(getString(R.string.stress_test_view_count, getViewCount()));
+        mDotCountText.setText(getString(R.string.stress_test_dot_count, getDotCount()));
+    }
+}
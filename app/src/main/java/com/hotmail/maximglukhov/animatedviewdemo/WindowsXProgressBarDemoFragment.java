@@ -52,9 +52,27 @@ public class WindowsXProgressBarDemoFragment extends Fragment implements View.On
         mSampleButton = (Button) layout.findViewById(R.id.sampleButton);
         mSampleButton.setOnClickListener(this);
 
+        setUpFrameMetricsOverlay(layout);
+
         return layout;
     }
 
+    /**
+     * Show frame metrics of the demo view in debug builds.
+     */
+    private void setUpFrameMetricsOverlay(View layout) {
+        if (!BuildConfig.DEBUG) {
+            return;
+        }
+
+        mWindowsXProgressBar.setFrameMetricsEnabled(true);
+
+        FrameMetricsOverlay overlay =
+                (FrameMetricsOverlay) layout.findViewById(R.id.frame_metrics_overlay);
+        overlay.setFrameMetrics(mWindowsXProgressBar.getFrameMetrics());
+        overlay.setVisibility(View.VISIBLE);
+    }
+
     private void setAnimatedDrawsListeners() {
         List<AnimatedDraw> animatedDraws = mWindowsXProgressBar.getAnimatedDraws();
     }
@@ -0,0 +1,172 @@
+package com.hotmail.maximglukhov.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs JVM microbenchmarks and writes their results as JSON.
+ *
+ * <p>Every benchmark is warmed up, then timed over several runs; the median time per operation
+ * is reported so a single GC pause or JIT compilation doesn't skew results. Results of a suite
+ * go to {@code <suite>.json} in the directory given by the {@code benchmark.outputDir} system
+ * property, so they can be compared between releases.</p>
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Time every run should roughly take, in nanoseconds.
+     */
+    private static final long TARGET_RUN_NANOS = 50000000L;
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 9;
+
+    /**
+     * Defines where results are written unless set by the build.
+     */
+    private static final String DEFAULT_OUTPUT_DIR = "build/benchmark-results";
+
+    /**
+     * Keeps results of benchmarked code alive so it isn't optimized away.
+     */
+    public static volatile float sink;
+
+    private final String mSuite;
+    private final List<Result> mResults = new ArrayList<>();
+
+    /**
+     * @param suite Name of the suite, also used as the output file name.
+     */
+    public BenchmarkRunner(String suite) {
+        mSuite = suite;
+    }
+
+    /**
+     * Measure a benchmark and keep its result.
+     * @param name Benchmark name.
+     * @param param Size the benchmark runs with, such as the dot count.
+     * @param body Code to measure.
+     * @return Median time per operation in nanoseconds.
+     */
+    public double measure(String name, int param, Body body) {
+        // Find an iteration count taking roughly the target time per run.
+        int iterations = 1;
+        while (true) {
+            long start = System.nanoTime();
+            body.run(iterations);
+            long elapsed = System.nanoTime() - start;
+
+            if (elapsed >= TARGET_RUN_NANOS / 10 || iterations >= (1 << 28)) {
+                iterations = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                        iterations * (TARGET_RUN_NANOS / Math.max(1, elapsed))));
+                break;
+            }
+            iterations *= 2;
+        }
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            body.run(iterations);
+        }
+
+        double[] nanosPerOp = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            body.run(iterations);
+            nanosPerOp[i] = (System.nanoTime() - start) / (double) iterations;
+        }
+        Arrays.sort(nanosPerOp);
+
+        Result result = new Result(name, param, iterations, nanosPerOp[MEASURED_RUNS / 2],
+                nanosPerOp[0], nanosPerOp[MEASURED_RUNS - 1]);
+        mResults.add(result);
+
+        System.out.println(String.format(Locale.US, "%s.%s[%d]: %.2f ns/op",
+                mSuite, name, param, result.medianNanos));
+
+        return result.medianNanos;
+    }
+
+    /**
+     * Write all results of this suite as JSON.
+     * @return Written file.
+     * @throws IOException If the file can't be written.
+     */
+    public File writeResults() throws IOException {
+        File directory = new File(System.getProperty("benchmark.outputDir", DEFAULT_OUTPUT_DIR));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+
+        File file = new File(directory, mSuite + ".json");
+        Writer writer = new FileWriter(file);
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+
+        return file;
+    }
+
+    /**
+     * @return Results of this suite as a JSON document.
+     */
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"suite\": \"").append(mSuite).append("\",\n");
+        json.append("  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n");
+        json.append("  \"jvm\": \"").append(System.getProperty("java.vm.name")).append(' ')
+                .append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"results\": [");
+
+        for (int i = 0; i < mResults.size(); i++) {
+            Result result = mResults.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append(String.format(Locale.US, "    {\"name\": \"%s\", \"param\": %d, "
+                            + "\"iterations\": %d, \"nsPerOp\": %.3f, \"minNsPerOp\": %.3f, "
+                            + "\"maxNsPerOp\": %.3f}",
+                    result.name, result.param, result.iterations, result.medianNanos,
+                    result.minNanos, result.maxNanos));
+        }
+
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Code to measure.
+     */
+    public interface Body {
+
+        /**
+         * @param iterations Amount of operations to run.
+         */
+        void run(int iterations);
+    }
+
+    private static final class Result {
+
+        final String name;
+        final int param;
+        final int iterations;
+        final double medianNanos;
+        final double minNanos;
+        final double maxNanos;
+
+        Result(String name, int param, int iterations, double medianNanos, double minNanos,
+               double maxNanos) {
+            this.name = name;
+            this.param = param;
+            this.iterations = iterations;
+            this.medianNanos = medianNanos;
+            this.minNanos = minNanos;
+            this.maxNanos = maxNanos;
+        }
+    }
+}
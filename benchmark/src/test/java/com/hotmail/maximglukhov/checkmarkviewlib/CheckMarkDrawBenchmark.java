@@ -0,0 +1,119 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.view.animation.AccelerateInterpolator;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+import com.hotmail.maximglukhov.benchmark.BenchmarkRunner;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks {@link CheckMarkView} draw stages against a {@link RecordingCanvas}.
+ */
+public class CheckMarkDrawBenchmark {
+
+    private static final int SIZE = 144;
+    private static final float STROKE_WIDTH = 7.5f;
+
+    /**
+     * Simulated frame interval, in milliseconds.
+     */
+    private static final int FRAME_INTERVAL = 16;
+
+    private static final BenchmarkRunner sRunner = new BenchmarkRunner("checkmarkviewlib");
+
+    @AfterClass
+    public static void writeResults() throws Exception {
+        System.out.println("Results written to " + sRunner.writeResults());
+    }
+
+    @Test
+    public void backgroundStage() throws Exception {
+        final CheckMarkRenderer renderer = createRenderer();
+        final RecordingCanvas canvas = new RecordingCanvas();
+
+        sRunner.measure("drawBackground", SIZE, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    renderer.drawBackground(canvas, (i & 63) / 63.0f);
+                }
+                BenchmarkRunner.sink = canvas.getDrawOpCount();
+            }
+        });
+    }
+
+    @Test
+    public void checkMarkStage() throws Exception {
+        final CheckMarkRenderer renderer = createRenderer();
+        final RecordingCanvas canvas = new RecordingCanvas();
+
+        sRunner.measure("drawCheckMark", SIZE, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    renderer.drawCheckMark(canvas, (i & 63) / 63.0f);
+                }
+                BenchmarkRunner.sink = canvas.getDrawOpCount();
+            }
+        });
+    }
+
+    @Test
+    public void animationFrame() throws Exception {
+        final CheckMarkRenderer renderer = createRenderer();
+        final RecordingCanvas canvas = new RecordingCanvas();
+
+        // Stages as laid out by CheckMarkView.
+        final AnimationTimeline timeline = new AnimationTimeline();
+        int halfDuration = CheckMarkView.DEFAULT_DURATION / 2;
+        final int backgroundStage = timeline.addStage(0, halfDuration,
+                new AccelerateInterpolator());
+        final int checkMarkStage = timeline.addStage(halfDuration, halfDuration,
+                new AccelerateInterpolator());
+        timeline.setLooping(true);
+        timeline.start(0);
+
+        sRunner.measure("animationFrame", SIZE, new BenchmarkRunner.Body() {
+            private long mNow;
+
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    mNow += FRAME_INTERVAL;
+                    timeline.update(mNow);
+
+                    renderer.draw(canvas, timeline.getStageValue(backgroundStage),
+                            timeline.getStageValue(checkMarkStage));
+                }
+                BenchmarkRunner.sink = canvas.getDrawOpCount();
+            }
+        });
+    }
+
+    @Test
+    public void resize() throws Exception {
+        final CheckMarkRenderer renderer = createRenderer();
+
+        sRunner.measure("setSize", SIZE, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    renderer.setSize(SIZE + (i & 1), SIZE);
+                }
+                BenchmarkRunner.sink = renderer.getWidth();
+            }
+        });
+    }
+
+    private static CheckMarkRenderer createRenderer() {
+        CheckMarkRenderer renderer = new CheckMarkRenderer(
+                CheckMarkView.DEFAULT_BACKGROUND_COLOR, CheckMarkView.DEFAULT_CHECK_MARK_COLOR,
+                STROKE_WIDTH);
+        renderer.setSize(SIZE, SIZE);
+
+        return renderer;
+    }
+}
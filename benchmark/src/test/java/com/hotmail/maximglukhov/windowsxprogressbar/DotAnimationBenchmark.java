@@ -0,0 +1,210 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+import com.hotmail.maximglukhov.benchmark.BenchmarkRunner;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks {@link WindowsXProgressBar} hot paths: {@link LookupTables} against the exact
+ * functions they replace, the dot interpolator and a full frame of both dot engines.
+ *
+ * <p>The per-dot frame repeats what the view does every frame: advance the shared timeline,
+ * then for every dot draw, read its stage value, map it to a position and draw a circle.</p>
+ */
+public class DotAnimationBenchmark {
+
+    private static final int[] DOT_COUNTS = {5, 50, 500};
+    private static final int DOT_DURATION = 1500;
+
+    /**
+     * Simulated frame interval, in milliseconds.
+     */
+    private static final int FRAME_INTERVAL = 16;
+
+    private static final float[] INPUTS = new float[1024];
+
+    private static final BenchmarkRunner sRunner = new BenchmarkRunner("windowsxprogressbar");
+
+    static {
+        for (int i = 0; i < INPUTS.length; i++) {
+            INPUTS[i] = i / (float) INPUTS.length;
+        }
+    }
+
+    @AfterClass
+    public static void writeResults() throws Exception {
+        System.out.println("Results written to " + sRunner.writeResults());
+    }
+
+    @Test
+    public void easing() throws Exception {
+        sRunner.measure("LookupTables.easingExact", 1, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                float sink = 0.0f;
+                for (int i = 0; i < iterations; i++) {
+                    sink += LookupTables.easingExact(INPUTS[i & (INPUTS.length - 1)]);
+                }
+                BenchmarkRunner.sink = sink;
+            }
+        });
+
+        sRunner.measure("LookupTables.easing", 1, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                float sink = 0.0f;
+                for (int i = 0; i < iterations; i++) {
+                    sink += LookupTables.easing(INPUTS[i & (INPUTS.length - 1)]);
+                }
+                BenchmarkRunner.sink = sink;
+            }
+        });
+    }
+
+    @Test
+    public void unitCircle() throws Exception {
+        sRunner.measure("Math.sin+cos", 1, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                float sink = 0.0f;
+                for (int i = 0; i < iterations; i++) {
+                    double radians = INPUTS[i & (INPUTS.length - 1)] * 2.0 * Math.PI;
+                    sink += (float) (Math.cos(radians) + Math.sin(radians));
+                }
+                BenchmarkRunner.sink = sink;
+            }
+        });
+
+        sRunner.measure("LookupTables.sin+cosTurns", 1, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                float sink = 0.0f;
+                for (int i = 0; i < iterations; i++) {
+                    float turns = INPUTS[i & (INPUTS.length - 1)];
+                    sink += LookupTables.cosTurns(turns) + LookupTables.sinTurns(turns);
+                }
+                BenchmarkRunner.sink = sink;
+            }
+        });
+    }
+
+    @Test
+    public void interpolator() throws Exception {
+        final CustomInterpolator interpolator = new CustomInterpolator();
+
+        sRunner.measure("CustomInterpolator.getInterpolation", 1, new BenchmarkRunner.Body() {
+            @Override
+            public void run(int iterations) {
+                float sink = 0.0f;
+                for (int i = 0; i < iterations; i++) {
+                    sink += interpolator.getInterpolation(INPUTS[i & (INPUTS.length - 1)]);
+                }
+                BenchmarkRunner.sink = sink;
+            }
+        });
+    }
+
+    @Test
+    public void perDotFrame() throws Exception {
+        for (final int dotCount : DOT_COUNTS) {
+            final AnimationTimeline timeline = createPerDotTimeline(dotCount);
+            final DotTrajectory trajectory = createTrajectory();
+            final RecordingCanvas canvas = new RecordingCanvas();
+            final float[] positions = new float[dotCount * 2];
+
+            timeline.start(0);
+
+            sRunner.measure("perDotFrame", dotCount, new BenchmarkRunner.Body() {
+                private long mNow;
+
+                @Override
+                public void run(int iterations) {
+                    for (int i = 0; i < iterations; i++) {
+                        // onFrame of the timeline draw.
+                        mNow += FRAME_INTERVAL;
+                        timeline.update(mNow);
+
+                        // onDraw of every ProgressDotAnimatedDraw writes its position.
+                        int count = 0;
+                        for (int dot = 0; dot < dotCount; dot++) {
+                            if (timeline.isStageActive(dot)) {
+                                trajectory.getPosition(timeline.getStageValue(dot), positions,
+                                        count * 2);
+                                count++;
+                            }
+                        }
+
+                        // onDraw of the timeline draw batches them.
+                        if (count > 0) {
+                            canvas.drawPoints(positions, 0, count * 2, null);
+                        }
+                    }
+                    BenchmarkRunner.sink = canvas.getPointCount();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void singleClockFrame() throws Exception {
+        for (final int dotCount : DOT_COUNTS) {
+            final AnimationTimeline timeline = new AnimationTimeline();
+            final DotEngine engine = new DotEngine();
+            final DotTrajectory trajectory = createTrajectory();
+            final RecordingCanvas canvas = new RecordingCanvas();
+            final float[] positions = new float[dotCount * 2];
+
+            engine.configure(dotCount, DOT_DURATION);
+            timeline.setDuration(engine.getPeriod());
+            timeline.setLooping(true);
+            timeline.start(0);
+
+            sRunner.measure("singleClockFrame", dotCount, new BenchmarkRunner.Body() {
+                private long mNow;
+
+                @Override
+                public void run(int iterations) {
+                    for (int i = 0; i < iterations; i++) {
+                        mNow += FRAME_INTERVAL;
+                        timeline.update(mNow);
+
+                        int count = engine.computePositions(timeline.getElapsed(), trajectory,
+                                positions);
+                        if (count > 0) {
+                            canvas.drawPoints(positions, 0, count * 2, null);
+                        }
+                    }
+                    BenchmarkRunner.sink = canvas.getPointCount();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Timeline staging dots like {@link WindowsXProgressBar#ENGINE_PER_DOT} does.
+     */
+    private static AnimationTimeline createPerDotTimeline(int dotCount) {
+        AnimationTimeline timeline = new AnimationTimeline();
+        CustomInterpolator interpolator = new CustomInterpolator();
+        long nextDotDelay = DOT_DURATION / dotCount;
+
+        for (int i = 0; i < dotCount; i++) {
+            timeline.addStage(i * nextDotDelay, DOT_DURATION, interpolator);
+        }
+        timeline.setLooping(true);
+
+        return timeline;
+    }
+
+    private static DotTrajectory createTrajectory() {
+        DotTrajectory trajectory = new DotTrajectory();
+        trajectory.setSize(1080, 1080);
+        trajectory.setDotRadius(8);
+        trajectory.setHorizontal(false);
+
+        return trajectory;
+    }
+}
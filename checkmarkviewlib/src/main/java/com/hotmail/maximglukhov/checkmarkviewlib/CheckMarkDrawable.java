@@ -0,0 +1,182 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.view.animation.AccelerateInterpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.hotmail.maximglukhov.animatedviewcore.StyleCache;
+
+/**
+ * {@link Drawable} version of {@link CheckMarkView}.
+ *
+ * <p>Can be used as an {@link android.widget.ImageView} source, a compound drawable or a
+ * background, avoiding a dedicated view for every check mark.
+ * Call {@link #start()} to animate it.</p>
+ */
+public class CheckMarkDrawable extends Drawable implements Animatable {
+
+    /**
+     * Default intrinsic size in dp.
+     */
+    private static final int DEFAULT_SIZE_DP = 36;
+
+    /**
+     * Draws background and check mark for the current animation state.
+     */
+    private final CheckMarkRenderer mRenderer;
+
+    /**
+     * Intrinsic width and height in pixels.
+     */
+    private final int mIntrinsicSize;
+
+    /**
+     * Drives both stages; its fraction covers the background stage followed by the check mark.
+     */
+    private final ValueAnimator mAnimator;
+
+    /**
+     * Interpolates each stage like {@link CheckMarkView} does.
+     */
+    private final AccelerateInterpolator mStageInterpolator = new AccelerateInterpolator();
+
+    /**
+     * Animated value of the background, 0 to 1.
+     */
+    private float mBackgroundValue;
+    /**
+     * Animated value of the check mark, 0 to 1.
+     */
+    private float mCheckMarkValue;
+
+    public CheckMarkDrawable(Context context) {
+        float density = StyleCache.getDensity(context);
+
+        mRenderer = new CheckMarkRenderer(CheckMarkView.DEFAULT_BACKGROUND_COLOR,
+                CheckMarkView.DEFAULT_CHECK_MARK_COLOR,
+                CheckMarkView.DEFAULT_STROKE_WIDTH_DP * density);
+        mIntrinsicSize = Math.round(DEFAULT_SIZE_DP * density);
+
+        mAnimator = ValueAnimator.ofFloat(0.0f, 1.0f);
+        mAnimator.setDuration(CheckMarkView.DEFAULT_DURATION);
+        mAnimator.setInterpolator(new LinearInterpolator());
+        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                setAnimationFraction(animation.getAnimatedFraction());
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        if (!mAnimator.isStarted()) {
+            mAnimator.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        mAnimator.cancel();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mAnimator.isRunning();
+    }
+
+    /**
+     * Stop the animation and clear the drawn check mark.
+     */
+    public void reset() {
+        mAnimator.cancel();
+
+        setAnimationFraction(0.0f);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        Rect bounds = getBounds();
+
+        int saveCount = canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+        mRenderer.draw(canvas, mBackgroundValue, mCheckMarkValue);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        mRenderer.setSize(bounds.width(), bounds.height());
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+
+        if (!visible) {
+            stop();
+        } else if (restart) {
+            reset();
+            start();
+        }
+
+        return changed;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return mIntrinsicSize;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return mIntrinsicSize;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mRenderer.getAlpha() != alpha) {
+            mRenderer.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mRenderer.getAlpha();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        mRenderer.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    /**
+     * Split the overall animation fraction into both stages.
+     * @param fraction Overall animation fraction, 0 to 1.
+     */
+    private void setAnimationFraction(float fraction) {
+        float backgroundFraction = Math.min(1.0f, fraction * 2.0f);
+        float checkMarkFraction = Math.max(0.0f, fraction * 2.0f - 1.0f);
+
+        mBackgroundValue = mStageInterpolator.getInterpolation(backgroundFraction);
+        mCheckMarkValue = mStageInterpolator.getInterpolation(checkMarkFraction);
+
+        invalidateSelf();
+    }
+}
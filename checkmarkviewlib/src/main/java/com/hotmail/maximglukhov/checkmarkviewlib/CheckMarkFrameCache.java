@@ -0,0 +1,352 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.util.LruCache;
+
+/**
+ * Process-wide cache of pre-rendered check mark animation frames.
+ *
+ * <p>Every frame of the animation is rendered once into a strip bitmap, wrapped into rows
+ * so it stays within {@link #MAX_BITMAP_DIMENSION}. Strips are keyed by size, density and
+ * colours, so all check marks that look the same share one strip and draw each frame with
+ * a single {@link Canvas#drawBitmap}.</p>
+ *
+ * <p>Check marks whose strip would exceed {@link #maxSize()} or {@link #MAX_BITMAP_DIMENSION}
+ * aren't cached at all: caching them would evict them right away, so every view would render
+ * a strip of its own. Such views draw shapes instead.</p>
+ *
+ * <p>Hit, miss and eviction counters are exposed to help tuning {@link #setMaxSize(int)}.</p>
+ */
+public final class CheckMarkFrameCache {
+
+    /**
+     * Default maximum size of all cached strips in bytes.
+     */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Amount of frames rendered for each animation stage (background and check mark).
+     */
+    static final int FRAMES_PER_STAGE = 12;
+
+    /**
+     * Amount of frames in a strip.
+     */
+    static final int FRAME_COUNT = FRAMES_PER_STAGE * 2;
+
+    /**
+     * Largest strip width or height in pixels. Hardware accelerated canvases drop bitmaps
+     * larger than the GPU's maximum texture size, which is at least this on supported devices.
+     */
+    public static final int MAX_BITMAP_DIMENSION = 4096;
+
+    private static CheckMarkFrameCache sInstance;
+
+    /**
+     * Cached strips, sized in bytes.
+     */
+    private LruCache<Key, FrameStrip> mStrips;
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+
+    /**
+     * Set while strips are dropped on purpose, so they aren't counted as evictions.
+     */
+    private boolean mIsClearing;
+
+    private CheckMarkFrameCache() {
+        mStrips = createCache(DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    /**
+     * @return The shared frame cache.
+     */
+    public static synchronized CheckMarkFrameCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CheckMarkFrameCache();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Set the maximum size of all cached strips.
+     * Cached strips are dropped when the size changes.
+     * @param maxSizeBytes Maximum size in bytes.
+     */
+    public synchronized void setMaxSize(int maxSizeBytes) {
+        if (maxSizeBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeBytes <= 0");
+        }
+
+        if (maxSizeBytes != mStrips.maxSize()) {
+            evictAll();
+            mStrips = createCache(maxSizeBytes);
+        }
+    }
+
+    /**
+     * @return Maximum size of all cached strips in bytes.
+     */
+    public synchronized int maxSize() {
+        return mStrips.maxSize();
+    }
+
+    /**
+     * @return Current size of all cached strips in bytes.
+     */
+    public synchronized int size() {
+        return mStrips.size();
+    }
+
+    /**
+     * @return Amount of times a strip was found in the cache.
+     */
+    public synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return Amount of times a strip had to be rendered.
+     */
+    public synchronized int missCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return Amount of strips evicted to stay within {@link #maxSize()}.
+     */
+    public synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Drop all cached strips. Counters are kept.
+     */
+    public synchronized void evictAll() {
+        mIsClearing = true;
+        try {
+            mStrips.evictAll();
+        } finally {
+            mIsClearing = false;
+        }
+    }
+
+    /**
+     * Get the strip matching the renderer's look, rendering it if it isn't cached.
+     * @param renderer Renderer with size and colours set.
+     * @param density Screen density the renderer was set up for.
+     * @return Strip of frames, or null if the renderer has no size yet or its strip
+     * wouldn't fit, see {@link #canCache(int, int)}.
+     */
+    synchronized FrameStrip acquire(CheckMarkRenderer renderer, float density) {
+        if (!canCache(renderer.getWidth(), renderer.getHeight())) {
+            return null;
+        }
+
+        Key key = new Key(renderer.getWidth(), renderer.getHeight(), density,
+                renderer.getBackgroundColor(), renderer.getCheckMarkColor(),
+                renderer.getStrokeWidth());
+
+        FrameStrip strip = mStrips.get(key);
+        if (strip != null) {
+            mHitCount++;
+            return strip;
+        }
+
+        mMissCount++;
+
+        strip = FrameStrip.render(renderer);
+        mStrips.put(key, strip);
+
+        return strip;
+    }
+
+    /**
+     * Determines if frames of the given size can be cached: the strip fits within
+     * {@link #MAX_BITMAP_DIMENSION} and {@link #maxSize()}.
+     * @param frameWidth Frame width in pixels.
+     * @param frameHeight Frame height in pixels.
+     * @return True if a strip would be cached, false if views should draw shapes.
+     */
+    synchronized boolean canCache(int frameWidth, int frameHeight) {
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            return false;
+        }
+
+        int columns = FrameStrip.getColumnCount(frameWidth);
+        if (columns == 0) {
+            return false;
+        }
+
+        long stripHeight = (long) FrameStrip.getRowCount(columns) * frameHeight;
+        long stripBytes = (long) columns * frameWidth * stripHeight * 4;
+
+        return stripHeight <= MAX_BITMAP_DIMENSION && stripBytes <= mStrips.maxSize();
+    }
+
+    private LruCache<Key, FrameStrip> createCache(int maxSizeBytes) {
+        return new LruCache<Key, FrameStrip>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(Key key, FrameStrip value) {
+                return value.bitmap.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, FrameStrip oldValue,
+                                        FrameStrip newValue) {
+                // Bitmaps aren't recycled since views may still be drawing them.
+                if (evicted && !mIsClearing) {
+                    mEvictionCount++;
+                }
+            }
+        };
+    }
+
+    /**
+     * Strip of pre-rendered frames, left to right and wrapped into rows.
+     * The first {@link #FRAMES_PER_STAGE} frames grow the background,
+     * the next {@link #FRAMES_PER_STAGE} frames reveal the check mark on a full background.
+     */
+    static final class FrameStrip {
+
+        final Bitmap bitmap;
+        final int frameWidth;
+        final int frameHeight;
+        final int columnCount;
+
+        private FrameStrip(Bitmap bitmap, int frameWidth, int frameHeight, int columnCount) {
+            this.bitmap = bitmap;
+            this.frameWidth = frameWidth;
+            this.frameHeight = frameHeight;
+            this.columnCount = columnCount;
+        }
+
+        /**
+         * @param frameWidth Frame width in pixels.
+         * @return Frames per row, as many as fit within {@link #MAX_BITMAP_DIMENSION},
+         * or 0 if not even one does.
+         */
+        static int getColumnCount(int frameWidth) {
+            return Math.min(FRAME_COUNT, MAX_BITMAP_DIMENSION / frameWidth);
+        }
+
+        /**
+         * @param columnCount Frames per row.
+         * @return Amount of rows holding all frames.
+         */
+        static int getRowCount(int columnCount) {
+            return (FRAME_COUNT + columnCount - 1) / columnCount;
+        }
+
+        static FrameStrip render(CheckMarkRenderer renderer) {
+            int frameWidth = renderer.getWidth();
+            int frameHeight = renderer.getHeight();
+            int columnCount = getColumnCount(frameWidth);
+
+            FrameStrip strip = new FrameStrip(Bitmap.createBitmap(frameWidth * columnCount,
+                    frameHeight * getRowCount(columnCount), Bitmap.Config.ARGB_8888),
+                    frameWidth, frameHeight, columnCount);
+            Canvas canvas = new Canvas(strip.bitmap);
+            Rect bounds = new Rect();
+
+            for (int i = 0; i < FRAME_COUNT; i++) {
+                float backgroundValue = 1.0f;
+                float checkMarkValue = 0.0f;
+
+                if (i < FRAMES_PER_STAGE) {
+                    backgroundValue = (i + 1) / (float) FRAMES_PER_STAGE;
+                } else {
+                    checkMarkValue = (i - FRAMES_PER_STAGE + 1) / (float) FRAMES_PER_STAGE;
+                }
+
+                strip.getFrameBounds(i, bounds);
+
+                canvas.save();
+                canvas.translate(bounds.left, bounds.top);
+                canvas.clipRect(0, 0, frameWidth, frameHeight);
+                renderer.draw(canvas, backgroundValue, checkMarkValue);
+                canvas.restore();
+            }
+
+            return strip;
+        }
+
+        /**
+         * @param index Frame index within the strip.
+         * @param out Receives the frame's bounds within {@link #bitmap}.
+         */
+        void getFrameBounds(int index, Rect out) {
+            int left = (index % columnCount) * frameWidth;
+            int top = (index / columnCount) * frameHeight;
+
+            out.set(left, top, left + frameWidth, top + frameHeight);
+        }
+
+        /**
+         * @param value Animated value of a stage, 0 to 1.
+         * @return Index of the frame within the stage, or -1 if nothing should be drawn.
+         */
+        static int stageFrame(float value) {
+            int frame = Math.round(value * FRAMES_PER_STAGE) - 1;
+
+            return Math.min(frame, FRAMES_PER_STAGE - 1);
+        }
+    }
+
+    /**
+     * Identifies the look of a check mark.
+     */
+    private static final class Key {
+
+        private final int width;
+        private final int height;
+        private final float density;
+        private final int backgroundColor;
+        private final int checkMarkColor;
+        private final float strokeWidth;
+
+        Key(int width, int height, float density, int backgroundColor, int checkMarkColor,
+            float strokeWidth) {
+            this.width = width;
+            this.height = height;
+            this.density = density;
+            this.backgroundColor = backgroundColor;
+            this.checkMarkColor = checkMarkColor;
+            this.strokeWidth = strokeWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return width == other.width
+                    && height == other.height
+                    && Float.compare(density, other.density) == 0
+                    && backgroundColor == other.backgroundColor
+                    && checkMarkColor == other.checkMarkColor
+                    && Float.compare(strokeWidth, other.strokeWidth) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + Float.floatToIntBits(density);
+            result = 31 * result + backgroundColor;
+            result = 31 * result + checkMarkColor;
+            result = 31 * result + Float.floatToIntBits(strokeWidth);
+            return result;
+        }
+    }
+}
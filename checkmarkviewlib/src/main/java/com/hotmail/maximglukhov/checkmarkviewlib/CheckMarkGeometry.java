@@ -0,0 +1,63 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+/**
+ * Pre-calculated geometry of the check mark.
+ * Updated once per size change so drawing frames never allocate.
+ */
+final class CheckMarkGeometry {
+
+    /**
+     * Multiplier for short distance (from center).
+     */
+    static final float CHECKMARK_SHORT_MULTIPLIER = 0.3f;
+    /**
+     * Multiplier for long distance (from center).
+     */
+    static final float CHECKMARK_LONG_MULTIPLIER = 0.5f;
+
+    /**
+     * Center of available drawing bounds.
+     */
+    float centerX;
+    float centerY;
+    /**
+     * Radius from center of view.
+     */
+    float radius;
+
+    /**
+     * Start of the left part of the check mark.
+     */
+    float leftStartX;
+    float leftStartY;
+    /**
+     * Joint between the left and the right parts of the check mark.
+     */
+    float jointX;
+    float jointY;
+    /**
+     * End of the right part of the check mark.
+     */
+    float rightEndX;
+    float rightEndY;
+
+    /**
+     * Recalculate geometry for the given available drawing size.
+     * @param width Available width for drawing.
+     * @param height Available height for drawing.
+     */
+    void set(int width, int height) {
+        centerX = width / 2.0f;
+        centerY = height / 2.0f;
+        radius = Math.min(width, height) / 2.0f;
+
+        leftStartX = centerX - CHECKMARK_LONG_MULTIPLIER * radius;
+        leftStartY = centerY + CHECKMARK_SHORT_MULTIPLIER * radius;
+
+        jointX = centerX;
+        jointY = centerY + CHECKMARK_LONG_MULTIPLIER * radius;
+
+        rightEndX = centerX + CHECKMARK_SHORT_MULTIPLIER * radius;
+        rightEndY = centerY - CHECKMARK_LONG_MULTIPLIER * radius;
+    }
+}
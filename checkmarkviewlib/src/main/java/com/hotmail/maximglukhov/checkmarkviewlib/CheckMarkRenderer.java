@@ -0,0 +1,201 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+
+import com.hotmail.maximglukhov.animatedviewcore.StyleCache;
+
+/**
+ * Draws the check mark background and stroke for a given animation state.
+ * Shared by {@link CheckMarkView} and {@link CheckMarkFrameCache} so both produce the same image.
+ */
+final class CheckMarkRenderer {
+
+    /**
+     * Check mark geometry, calculated once per size change.
+     */
+    private final CheckMarkGeometry mGeometry = new CheckMarkGeometry();
+
+    /**
+     * Full check mark path, built once per size change.
+     */
+    private final Path mCheckMarkPath = new Path();
+    /**
+     * Measures {@link #mCheckMarkPath} for segment extraction.
+     */
+    private final PathMeasure mCheckMarkPathMeasure = new PathMeasure();
+    /**
+     * Length of {@link #mCheckMarkPath}.
+     */
+    private float mCheckMarkPathLength;
+    /**
+     * Visible part of {@link #mCheckMarkPath} for the current frame. Reused every frame.
+     */
+    private final Path mCheckMarkSegmentPath = new Path();
+
+    /**
+     * Paint for background drawing. Shared through {@link StyleCache} until mutated.
+     */
+    private Paint mBackgroundPaint;
+    /**
+     * Paint for check mark drawing. Shared through {@link StyleCache} until mutated.
+     */
+    private Paint mCheckMarkPaint;
+    /**
+     * Determines if the paints are owned by this renderer and may be modified.
+     */
+    private boolean mIsMutated;
+
+    /**
+     * Configured colours, before {@link #mAlpha} is applied.
+     */
+    private final int mBackgroundColor;
+    private final int mCheckMarkColor;
+    /**
+     * Alpha applied on top of the colours' own alpha, 0 to 255.
+     */
+    private int mAlpha = 255;
+
+    /**
+     * Available width for drawing.
+     */
+    private int mWidth;
+    /**
+     * Available height for drawing.
+     */
+    private int mHeight;
+
+    CheckMarkRenderer(int backgroundColor, int checkMarkColor, float strokeWidth) {
+        mBackgroundColor = backgroundColor;
+        mCheckMarkColor = checkMarkColor;
+
+        mBackgroundPaint = StyleCache.getFillPaint(backgroundColor);
+        mCheckMarkPaint = StyleCache.getStrokePaint(checkMarkColor, strokeWidth,
+                Paint.Cap.ROUND, Paint.Join.MITER);
+    }
+
+    /**
+     * Recalculate geometry and rebuild the check mark path.
+     * @param width Available width for drawing.
+     * @param height Available height for drawing.
+     */
+    void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+
+        mGeometry.set(width, height);
+
+        mCheckMarkPath.reset();
+        mCheckMarkPath.moveTo(mGeometry.leftStartX, mGeometry.leftStartY);
+        mCheckMarkPath.lineTo(mGeometry.jointX, mGeometry.jointY);
+        mCheckMarkPath.lineTo(mGeometry.rightEndX, mGeometry.rightEndY);
+
+        mCheckMarkPathMeasure.setPath(mCheckMarkPath, false);
+        mCheckMarkPathLength = mCheckMarkPathMeasure.getLength();
+    }
+
+    int getWidth() {
+        return mWidth;
+    }
+
+    int getHeight() {
+        return mHeight;
+    }
+
+    int getBackgroundColor() {
+        return mBackgroundColor;
+    }
+
+    int getCheckMarkColor() {
+        return mCheckMarkColor;
+    }
+
+    float getStrokeWidth() {
+        return mCheckMarkPaint.getStrokeWidth();
+    }
+
+    /**
+     * Set alpha for both background and check mark, scaling the colours' own alpha.
+     * @param alpha Alpha, 0 to 255.
+     */
+    void setAlpha(int alpha) {
+        mutatePaints();
+
+        mAlpha = alpha;
+        mBackgroundPaint.setAlpha(Color.alpha(mBackgroundColor) * alpha / 255);
+        mCheckMarkPaint.setAlpha(Color.alpha(mCheckMarkColor) * alpha / 255);
+    }
+
+    /**
+     * @return Alpha set with {@link #setAlpha(int)}, 255 by default.
+     */
+    int getAlpha() {
+        return mAlpha;
+    }
+
+    /**
+     * Set color filter for both background and check mark.
+     * @param colorFilter Color filter, or null to remove it.
+     */
+    void setColorFilter(ColorFilter colorFilter) {
+        mutatePaints();
+
+        mBackgroundPaint.setColorFilter(colorFilter);
+        mCheckMarkPaint.setColorFilter(colorFilter);
+    }
+
+    /**
+     * Replace shared paints with own copies before modifying them.
+     */
+    private void mutatePaints() {
+        if (!mIsMutated) {
+            mBackgroundPaint = new Paint(mBackgroundPaint);
+            mCheckMarkPaint = new Paint(mCheckMarkPaint);
+            mIsMutated = true;
+        }
+    }
+
+    /**
+     * Draw the background circle.
+     * @param canvas Canvas to draw on.
+     * @param value Animated value of the background, 0 to 1.
+     */
+    void drawBackground(Canvas canvas, float value) {
+        if (value > 0.0f) {
+            canvas.drawCircle(mGeometry.centerX, mGeometry.centerY, mGeometry.radius * value,
+                    mBackgroundPaint);
+        }
+    }
+
+    /**
+     * Draw the visible part of the check mark.
+     * @param canvas Canvas to draw on.
+     * @param value Animated value of the check mark, 0 to 1.
+     */
+    void drawCheckMark(Canvas canvas, float value) {
+        if (value > 0.0f) {
+            mCheckMarkSegmentPath.reset();
+            mCheckMarkPathMeasure.getSegment(0.0f, value * mCheckMarkPathLength,
+                    mCheckMarkSegmentPath, true);
+            // Work around segments not being drawn with hardware acceleration on API < 19.
+            mCheckMarkSegmentPath.rLineTo(0.0f, 0.0f);
+
+            canvas.drawPath(mCheckMarkSegmentPath, mCheckMarkPaint);
+        }
+    }
+
+    /**
+     * Draw both background and check mark.
+     * @param canvas Canvas to draw on.
+     * @param backgroundValue Animated value of the background, 0 to 1.
+     * @param checkMarkValue Animated value of the check mark, 0 to 1.
+     */
+    void draw(Canvas canvas, float backgroundValue, float checkMarkValue) {
+        drawBackground(canvas, backgroundValue);
+        drawCheckMark(canvas, checkMarkValue);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+/**
+ * Drawing state of a {@link CheckMarkView}.
+ */
+public enum CheckMarkState {
+    /**
+     * Animation hasn't started, nothing is drawn.
+     */
+    IDLE,
+    /**
+     * Animation is running, frames are drawn by the animated draws.
+     */
+    ANIMATING,
+    /**
+     * Animation is held at a position set by {@link CheckMarkView#setProgress(float)}.
+     */
+    PAUSED,
+    /**
+     * Animation has finished, the final image is drawn from a cached bitmap.
+     */
+    COMPLETED
+}
@@ -3,17 +3,22 @@ package com.hotmail.maximglukhov.checkmarkviewlib;
 import android.animation.TimeInterpolator;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.PointF;
+import android.graphics.Rect;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
-import android.view.WindowManager;
 import android.view.animation.AccelerateInterpolator;
-
+import android.view.animation.LinearInterpolator;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationScheduler;
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+import com.hotmail.maximglukhov.animatedviewcore.FrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.FrameMetrics;
+import com.hotmail.maximglukhov.animatedviewcore.FrameRateGovernor;
+import com.hotmail.maximglukhov.animatedviewcore.StyleCache;
 import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
-import com.hotmail.maximglukhov.animatedviewlib.AnimatedDrawState;
 import com.hotmail.maximglukhov.animatedviewlib.AnimatedView;
 
 /**
@@ -23,13 +28,21 @@ import com.hotmail.maximglukhov.animatedviewlib.AnimatedView;
 public class CheckMarkView extends AnimatedView {
 
     /**
-     * Multiplier for short distance (from center).
+     * Default background colour.
+     */
+    static final int DEFAULT_BACKGROUND_COLOR = Color.rgb(46, 139, 87);
+    /**
+     * Default check mark colour.
      */
-    private static final float CHERKMARK_SHORT_MULTIPLIER = 0.3f;
+    static final int DEFAULT_CHECK_MARK_COLOR = Color.WHITE;
     /**
-     * Multiplier for long distance (from center).
+     * Default check mark stroke width in dp.
      */
-    private static final float CHECKMARK_LONG_MULTIPLIER = 0.5f;
+    static final float DEFAULT_STROKE_WIDTH_DP = 2.5f;
+    /**
+     * Default duration of the whole animation, split evenly between background and check mark.
+     */
+    static final int DEFAULT_DURATION = 300;
 
     /**
      * Device's screen density. Important for consistent sizing on different displays.
@@ -37,26 +50,84 @@ public class CheckMarkView extends AnimatedView {
     private float mScreenDensity;
 
     /**
-     * Paint for background drawing.
+     * Background colour.
+     */
+    private int mBackgroundColor;
+    /**
+     * Check mark colour.
+     */
+    private int mCheckMarkColor;
+    /**
+     * Check mark stroke width in pixels.
+     */
+    private float mStrokeWidth;
+    /**
+     * Duration of the whole animation.
+     */
+    private int mDuration;
+
+    /**
+     * Draws background and check mark for the current animation state.
+     */
+    private CheckMarkRenderer mRenderer;
+
+    /**
+     * Sequences the background and the check mark stages on a single clock.
+     */
+    private final AnimationTimeline mTimeline = new AnimationTimeline();
+    /**
+     * Timeline stage growing the background.
+     */
+    private int mBackgroundStage;
+    /**
+     * Timeline stage revealing the check mark.
+     */
+    private int mCheckMarkStage;
+
+    /**
+     * Clock driving {@link #mTimeline}. While it's the shared {@link AnimationScheduler},
+     * frames come from the scheduler instead of {@link #mCheckMark}.
+     */
+    private FrameClock mFrameClock = AnimationScheduler.getInstance();
+
+    /**
+     * Requests frames while the timeline runs, unless frames come from the scheduler,
+     * and draws both stages.
      */
-    private Paint mBackgroundPaint;
+    private AnimatedDraw mCheckMark;
+
     /**
-     * Background animation.
+     * Advances {@link #mTimeline} from the shared scheduler while registered.
      */
-    private AnimatedDraw mBackground;
+    private final AnimationScheduler.Client mSchedulerClient = new AnimationScheduler.Client() {
+        @Override
+        public boolean onAnimationFrame(long frameTimeMillis) {
+            if (!mFrameRateGovernor.shouldDrawFrame(frameTimeMillis)) {
+                // Skipped, the next drawn frame catches up with the clock.
+                return true;
+            }
+
+            boolean isRunning = advanceTimeline(frameTimeMillis);
+            invalidate();
+
+            return isRunning;
+        }
+    };
 
     /**
-     * Paint for check mark drawing.
+     * Limits the frame rate of scheduler frames, see {@link #setFrameRatePolicy(int)}.
      */
-    private Paint mCheckMarkPaint;
+    private final FrameRateGovernor mFrameRateGovernor = new FrameRateGovernor();
+
     /**
-     * Left part of check mark animation.
+     * Frame metrics, or null while disabled.
      */
-    private AnimatedDraw mCheckMarkLeft;
+    private FrameMetrics mFrameMetrics;
+
     /**
-     * Right part of check mark animation.
+     * Visible part of the view, reused by {@link #isOnScreen()}.
      */
-    private AnimatedDraw mCheckMarkRight;
+    private final Rect mVisibleRect = new Rect();
 
     /**
      * Available screen width for drawing.
@@ -68,45 +139,236 @@ public class CheckMarkView extends AnimatedView {
     private int mHeight;
 
     /**
-     * Center of available drawing bounds.
+     * Determines if frames are drawn from the shared {@link CheckMarkFrameCache}.
      */
-    private PointF mCenter = new PointF();
+    private boolean mIsFrameCacheEnabled;
     /**
-     * Radius from center of view.
+     * Pre-rendered frames for the current size, when the frame cache is enabled.
      */
-    private float mRadius;
+    private CheckMarkFrameCache.FrameStrip mFrameStrip;
+    /**
+     * Source bounds of the current frame within {@link #mFrameStrip}. Reused every frame.
+     */
+    private final Rect mFrameSrcRect = new Rect();
+    /**
+     * Destination bounds of a frame. Reused every frame.
+     */
+    private final Rect mFrameDstRect = new Rect();
+
+    /**
+     * Current drawing state.
+     */
+    private CheckMarkState mState = CheckMarkState.IDLE;
+    /**
+     * Final image of the animation, rendered when the animation completes unless frames come
+     * from {@link #mFrameStrip}. Completing by {@link #setProgress(float)} draws shapes instead,
+     * so seeking never allocates. Kept while seeking or animating again, released once idle
+     * and while detached.
+     */
+    private Bitmap mCompletedBitmap;
+    /**
+     * Determines if this view was detached from its window and not attached again.
+     */
+    private boolean mIsDetached;
 
     public CheckMarkView(Context context) {
         super(context);
 
-        init(context);
+        init(context, null, 0, 0);
     }
 
     public CheckMarkView(Context context, AttributeSet attrs) {
         super(context, attrs);
 
-        init(context);
+        init(context, attrs, 0, 0);
     }
 
     public CheckMarkView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        init(context);
+        init(context, attrs, defStyleAttr, 0);
     }
 
     @TargetApi(21)
     public CheckMarkView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
 
-        init(context);
+        init(context, attrs, defStyleAttr, defStyleRes);
     }
 
     /**
      * Start animations for this view.
      */
     public void runAnimations() {
-        // Start animating background.
-        mBackground.startAnimation();
+        setState(CheckMarkState.ANIMATING);
+
+        // Start the timeline, background first.
+        mTimeline.start(mFrameClock.uptimeMillis());
+        startFrames();
+    }
+
+    /**
+     * Play the animation backwards from its current position, unchecking the check mark.
+     */
+    public void reverse() {
+        if (mState == CheckMarkState.IDLE) {
+            return;
+        }
+
+        long now = mFrameClock.uptimeMillis();
+
+        setState(CheckMarkState.ANIMATING);
+        mTimeline.setReversed(true, now);
+        mTimeline.resume(now);
+        startFrames();
+
+        invalidate();
+    }
+
+    /**
+     * Move the animation to the given position without running it.
+     * Doesn't allocate, so it can be called on every touch event.
+     * @param progress Position within the whole animation, 0 to 1.
+     */
+    public void setProgress(float progress) {
+        progress = Math.max(0.0f, Math.min(1.0f, progress));
+
+        mTimeline.seek(Math.round(progress * mTimeline.getDuration()));
+        stopFrames();
+
+        if (progress <= 0.0f) {
+            setState(CheckMarkState.IDLE);
+        } else if (progress >= 1.0f) {
+            setState(CheckMarkState.COMPLETED);
+        } else {
+            setState(CheckMarkState.PAUSED);
+        }
+
+        invalidate();
+    }
+
+    /**
+     * @return Current position within the whole animation, 0 to 1.
+     */
+    public float getProgress() {
+        long duration = mTimeline.getDuration();
+
+        return duration > 0 ? mTimeline.getElapsed() / (float) duration : 0.0f;
+    }
+
+    @Override
+    public void clearAnimation() {
+        super.clearAnimation();
+
+        mTimeline.reset();
+        stopFrames();
+
+        setState(CheckMarkState.IDLE);
+        invalidate();
+    }
+
+    /**
+     * Set the clock driving the animation. Mainly useful to drive frames from a simulated clock.
+     * Any clock but the shared {@link AnimationScheduler} makes this view request its own frames.
+     * @param frameClock Clock to use, {@link AnimationScheduler#getInstance()} by default.
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        boolean isRequestingFrames = mTimeline.isRunning();
+        if (isRequestingFrames) {
+            stopFrames();
+        }
+
+        mFrameClock = frameClock;
+
+        if (isRequestingFrames) {
+            startFrames();
+        }
+    }
+
+    /**
+     * Enable or disable recording of frame metrics. Disabled by default, costing nothing.
+     * Disabling drops everything recorded so far.
+     * @param enabled True to record frame metrics.
+     */
+    public void setFrameMetricsEnabled(boolean enabled) {
+        if (enabled == (mFrameMetrics != null)) {
+            return;
+        }
+
+        mFrameMetrics = enabled ? new FrameMetrics() : null;
+    }
+
+    /**
+     * @return Frame metrics recorded since enabled, or null if disabled.
+     * @see #setFrameMetricsEnabled(boolean)
+     */
+    public FrameMetrics getFrameMetrics() {
+        return mFrameMetrics;
+    }
+
+    /**
+     * Set how many frames are drawn while animating. Animations keep following the clock,
+     * lower frame rates only draw fewer of their frames. Applies to frames from the shared
+     * {@link AnimationScheduler}, views on other clocks draw every frame.
+     * @param policy {@link FrameRateGovernor#POLICY_FULL} (default),
+     *               {@link FrameRateGovernor#POLICY_CAPPED} or {@link FrameRateGovernor#POLICY_ADAPTIVE}.
+     */
+    public void setFrameRatePolicy(int policy) {
+        mFrameRateGovernor.setPolicy(policy);
+    }
+
+    /**
+     * @return Current frame rate policy.
+     * @see #setFrameRatePolicy(int)
+     */
+    public int getFrameRatePolicy() {
+        return mFrameRateGovernor.getPolicy();
+    }
+
+    /**
+     * @param framesPerSecond Frame rate of {@link FrameRateGovernor#POLICY_CAPPED},
+     *                        {@link FrameRateGovernor#DEFAULT_CAPPED_FRAME_RATE} by default.
+     */
+    public void setCappedFrameRate(int framesPerSecond) {
+        mFrameRateGovernor.setCappedFrameRate(framesPerSecond);
+    }
+
+    /**
+     * @return Frame rate of {@link FrameRateGovernor#POLICY_CAPPED}.
+     */
+    public int getCappedFrameRate() {
+        return mFrameRateGovernor.getCappedFrameRate();
+    }
+
+    /**
+     * @return Current drawing state of this view.
+     */
+    public CheckMarkState getCheckMarkState() {
+        return mState;
+    }
+
+    /**
+     * Draw frames from bitmaps shared by all check marks of the same size and colours
+     * instead of drawing shapes every frame. Disabled by default. Check marks too large
+     * to cache keep drawing shapes.
+     * @param enabled True to draw from {@link CheckMarkFrameCache}.
+     */
+    public void setFrameCacheEnabled(boolean enabled) {
+        if (mIsFrameCacheEnabled != enabled) {
+            mIsFrameCacheEnabled = enabled;
+
+            updateFrameStrip();
+            releaseCompletedBitmap();
+            renderCompletedBitmap();
+            invalidate();
+        }
+    }
+
+    /**
+     * @return True if frames are drawn from {@link CheckMarkFrameCache}.
+     */
+    public boolean isFrameCacheEnabled() {
+        return mIsFrameCacheEnabled;
     }
 
     @Override
@@ -117,183 +379,323 @@ public class CheckMarkView extends AnimatedView {
         mWidth  = w - (getPaddingLeft() + getPaddingRight());
         mHeight = h - (getPaddingBottom() + getPaddingTop());
 
-        // Calculate center and radius.
-        mCenter = new PointF(mWidth / 2.0f, mHeight / 2.0f);
-        mRadius = Math.min(mWidth, mHeight) / 2.0f;
+        // Calculate center, radius and check mark path.
+        mRenderer.setSize(mWidth, mHeight);
+        mFrameDstRect.set(0, 0, mWidth, mHeight);
+        mFrameRateGovernor.setSize(w, h, mScreenDensity);
+
+        updateFrameStrip();
+
+        // Final image is rendered again for the new size.
+        releaseCompletedBitmap();
+        renderCompletedBitmap();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        mIsDetached = false;
+        mFrameRateGovernor.attach(getContext());
+        renderCompletedBitmap();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mIsDetached = true;
+        releaseCompletedBitmap();
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        FrameMetrics frameMetrics = mFrameMetrics;
+        if (frameMetrics == null) {
+            super.draw(canvas);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        super.draw(canvas);
+        frameMetrics.recordDraw(System.nanoTime() - startNanos);
     }
 
     @Override
     protected void onDrawStatics(Canvas canvas) {
         // Draw non-animating here.
+        if (mState == CheckMarkState.COMPLETED) {
+            if (mFrameStrip != null) {
+                drawCachedFrame(canvas, CheckMarkFrameCache.FRAMES_PER_STAGE, 1.0f);
+            } else if (mCompletedBitmap != null) {
+                canvas.drawBitmap(mCompletedBitmap, 0, 0, null);
+            } else {
+                mRenderer.draw(canvas, 1.0f, 1.0f);
+            }
+        }
     }
 
     /**
      * Initialize this view.
-     * @param context Context to initialize for (constructor).
+     * @param context {@link Context} to initialize for.
+     * @param attrs Attributes for this view.
+     * @param defStyleAttr Style attributes.
+     * @param defStyleRes Style resources.
      */
-    private void init(Context context) {
-        calculateScreenDensity(context);
+    private void init(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        mScreenDensity = StyleCache.getDensity(context);
 
-        initPaints();
+        initAttributes(context, attrs, defStyleAttr, defStyleRes);
+        initRenderer();
         initAnimatedDraws();
     }
 
     /**
-     * Calculate screen density for this device.
-     * @param context Context to get {@link WindowManager} instance from.
+     * Initialize attributes
+     * @param context {@link Context} to initialize for.
+     * @param attrs Attributes for this view.
+     * @param defStyleAttr Style attributes.
+     * @param defStyleRes Style resources.
      */
-    private void calculateScreenDensity(Context context) {
-        DisplayMetrics displayMetrics = new DisplayMetrics();
-
-        WindowManager windowManager = (WindowManager) context
-                .getSystemService(Context.WINDOW_SERVICE);
-        windowManager.getDefaultDisplay().getMetrics(displayMetrics);
+    private void initAttributes(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        mBackgroundColor = DEFAULT_BACKGROUND_COLOR;
+        mCheckMarkColor = DEFAULT_CHECK_MARK_COLOR;
+        mStrokeWidth = DEFAULT_STROKE_WIDTH_DP * mScreenDensity;
+        mDuration = DEFAULT_DURATION;
+
+        if (attrs != null) {
+            TypedArray styledAttrsArr = context.getTheme().obtainStyledAttributes(attrs,
+                    R.styleable.CheckMarkView, defStyleAttr, defStyleRes);
+            try {
+                mBackgroundColor = styledAttrsArr.getColor(
+                        R.styleable.CheckMarkView_checkmark_background_color,
+                        mBackgroundColor);
+                mCheckMarkColor = styledAttrsArr.getColor(
+                        R.styleable.CheckMarkView_checkmark_color,
+                        mCheckMarkColor);
+                mStrokeWidth = styledAttrsArr.getDimension(
+                        R.styleable.CheckMarkView_checkmark_stroke_width,
+                        mStrokeWidth);
+                mDuration = Math.max(2, styledAttrsArr.getInt(
+                        R.styleable.CheckMarkView_checkmark_duration,
+                        mDuration));
+            } finally {
+                styledAttrsArr.recycle();
+            }
+        }
+    }
 
-        mScreenDensity = displayMetrics.density;
+    /**
+     * Create the {@link CheckMarkRenderer} with this view's colours.
+     */
+    private void initRenderer() {
+        mRenderer = new CheckMarkRenderer(mBackgroundColor, mCheckMarkColor, mStrokeWidth);
     }
 
     /**
-     * Create {@link Paint} objects and set their attributes.
+     * Create {@link AnimatedDraw} objects for animations.
      */
-    private void initPaints() {
-        mBackgroundPaint = new Paint();
-        mBackgroundPaint.setColor(Color.rgb(46, 139, 87));
-        mBackgroundPaint.setStyle(Paint.Style.FILL);
-        mBackgroundPaint.setAntiAlias(true);
+    private void initAnimatedDraws() {
+        int animTime = mDuration / 2;
+
+        mBackgroundStage = mTimeline.addStage(0, animTime, new AccelerateInterpolator());
+        mCheckMarkStage = mTimeline.addStage(animTime, animTime, new AccelerateInterpolator());
 
-        mCheckMarkPaint = new Paint();
-        mCheckMarkPaint.setColor(Color.WHITE);
-        mCheckMarkPaint.setStyle(Paint.Style.STROKE);
-        mCheckMarkPaint.setStrokeWidth(2.5f * mScreenDensity);
+        mCheckMark = new CheckMarkAnimatedDraw(new LinearInterpolator(),
+                (int) mTimeline.getDuration());
 
-        mCheckMarkPaint.setAntiAlias(true);
-        mCheckMarkPaint.setStrokeCap(Paint.Cap.ROUND);
+        addAnimated(mCheckMark);
     }
 
     /**
-     * Create {@link AnimatedDraw} objects for animations.
+     * Acquire or release the frame strip according to the cache mode and size.
      */
-    private void initAnimatedDraws() {
-        int animTime = 150;
+    private void updateFrameStrip() {
+        if (mIsFrameCacheEnabled) {
+            mFrameStrip = CheckMarkFrameCache.getInstance().acquire(mRenderer, mScreenDensity);
+        } else {
+            mFrameStrip = null;
+        }
+    }
 
-        mBackground = new BackgroundAnimatedDraw(new AccelerateInterpolator(), animTime);
+    /**
+     * Switch to the completed state once the last stage ends.
+     */
+    private void onAnimationCompleted() {
+        setState(CheckMarkState.COMPLETED);
+        renderCompletedBitmap();
 
-        mCheckMarkLeft = new CheckMarkLeftAnimatedDraw(new AccelerateInterpolator(), animTime/2);
-        mCheckMarkRight = new CheckMarkRightAnimatedDraw(new AccelerateInterpolator(), animTime/2);
+        invalidate();
+    }
 
-        addAnimated(mBackground);
-        addAnimated(mCheckMarkLeft);
-        addAnimated(mCheckMarkRight);
+    /**
+     * @return Final image drawn in the completed state, or null if none is held.
+     */
+    Bitmap getCompletedBitmap() {
+        return mCompletedBitmap;
     }
 
     /**
-     * Draws the background of the check mark.
+     * Change the drawing state. Idle check marks release {@link #mCompletedBitmap}.
+     * Doesn't allocate.
+     * @param state New state.
      */
-    private class BackgroundAnimatedDraw extends AnimatedDraw {
+    private void setState(CheckMarkState state) {
+        mState = state;
 
-        public BackgroundAnimatedDraw(TimeInterpolator interpolator, int durationMillis) {
-            super(interpolator, durationMillis);
+        if (state == CheckMarkState.IDLE) {
+            releaseCompletedBitmap();
         }
+    }
 
-        @Override
-        public void onFrame(float interpolatedTime) {
-            // Handle every frame according to time.
+    /**
+     * Render {@link #mCompletedBitmap} if the check mark is completed, sized, attached and
+     * not drawn from the frame cache. Never called while drawing or seeking, which stay
+     * allocation free.
+     */
+    private void renderCompletedBitmap() {
+        boolean isNeeded = mState == CheckMarkState.COMPLETED && mFrameStrip == null
+                && !mIsDetached && mWidth > 0 && mHeight > 0;
 
-            if (interpolatedTime == 0.0f) {
-                mCheckMarkLeft.resetAnimation();
-            }
+        if (isNeeded && mCompletedBitmap == null) {
+            mCompletedBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            mRenderer.draw(new Canvas(mCompletedBitmap), 1.0f, 1.0f);
+        }
+    }
 
-            if (interpolatedTime == 1.0f) {
-                // Start animating check mark first part.
-                mCheckMarkLeft.startAnimation();
-            }
+    /**
+     * Release the final image bitmap, if any.
+     */
+    private void releaseCompletedBitmap() {
+        if (mCompletedBitmap != null) {
+            mCompletedBitmap.recycle();
+            mCompletedBitmap = null;
         }
+    }
 
-        @Override
-        public void onDraw(Canvas canvas) {
-            // Draw frame by frame.
+    /**
+     * Draw a single pre-rendered frame.
+     * @param canvas Canvas to draw on.
+     * @param stageOffset Index of the first frame of the stage.
+     * @param value Animated value of the stage, 0 to 1.
+     */
+    private void drawCachedFrame(Canvas canvas, int stageOffset, float value) {
+        int frame = CheckMarkFrameCache.FrameStrip.stageFrame(value);
 
-            // Calculate radius by interpolated animation value.
-            float interpolatedRadius = mRadius * getAnimatedValue();
+        if (frame >= 0) {
+            mFrameStrip.getFrameBounds(stageOffset + frame, mFrameSrcRect);
 
-            canvas.drawCircle(mCenter.x, mCenter.y, interpolatedRadius, mBackgroundPaint);
+            canvas.drawBitmap(mFrameStrip.bitmap, mFrameSrcRect, mFrameDstRect, null);
         }
     }
 
     /**
-     * Draws the left part of the check mark.
+     * @return True if frames come from the shared {@link AnimationScheduler}.
      */
-    private class CheckMarkLeftAnimatedDraw extends AnimatedDraw {
-
-        private PointF start;
-        private PointF end;
+    private boolean isScheduled() {
+        return mFrameClock == AnimationScheduler.getInstance();
+    }
 
-        public CheckMarkLeftAnimatedDraw(TimeInterpolator interpolator, int durationMillis) {
-            super(interpolator, durationMillis);
+    /**
+     * Start receiving frames for {@link #mTimeline}.
+     */
+    private void startFrames() {
+        if (isScheduled()) {
+            mFrameRateGovernor.reset();
+            AnimationScheduler.getInstance().register(mSchedulerClient);
+        } else {
+            mCheckMark.startAnimation();
         }
+    }
 
-        @Override
-        public void onFrame(float interpolatedTime) {
-            if (interpolatedTime == 0.0f) {
-                if (mCheckMarkRight != null) {
-                    mCheckMarkRight.resetAnimation();
-                }
+    /**
+     * Stop receiving frames for {@link #mTimeline}.
+     */
+    private void stopFrames() {
+        AnimationScheduler.getInstance().unregister(mSchedulerClient);
+        mCheckMark.stopAnimation();
+    }
 
-                start = new PointF(mCenter.x - CHECKMARK_LONG_MULTIPLIER * mRadius,
-                        mCenter.y + CHERKMARK_SHORT_MULTIPLIER * mRadius);
-                end = new PointF(mCenter.x, mCenter.y + CHECKMARK_LONG_MULTIPLIER * mRadius);
-            }
+    /**
+     * @return True if any part of the view is on screen. Unlike {@link #isShown()}, false
+     * while scrolled out of its viewport as well.
+     */
+    private boolean isOnScreen() {
+        return isShown() && getGlobalVisibleRect(mVisibleRect);
+    }
 
-            // Start the second part when this one ends.
-            if (interpolatedTime == 1.0f) {
-                if (mCheckMarkRight.getState() == AnimatedDrawState.NONE)
-                    mCheckMarkRight.startAnimation();
+    /**
+     * Advance {@link #mTimeline} for a frame, complete the animation when it ends
+     * and record frame metrics.
+     * @param now Frame time.
+     * @return True if the timeline still runs.
+     */
+    private boolean advanceTimeline(long now) {
+        FrameMetrics frameMetrics = mFrameMetrics;
+        long startNanos = frameMetrics != null ? System.nanoTime() : 0;
+
+        boolean isRunning = mTimeline.update(now);
+        if (!isRunning && mTimeline.isFinished() && mState == CheckMarkState.ANIMATING) {
+            if (mTimeline.isReversed()) {
+                // Played back to the start, nothing left to draw.
+                setState(CheckMarkState.IDLE);
+                invalidate();
+            } else {
+                onAnimationCompleted();
             }
         }
 
-        @Override
-        public void onDraw(Canvas canvas) {
-            if (start != null && end != null) {
-                float interpolation = getAnimatedValue();
-
-                canvas.drawLine(start.x, start.y,
-                        start.x + interpolation * (end.x - start.x),
-                        start.y + interpolation * (end.y - start.y),
-                        mCheckMarkPaint);
-            }
+        if (frameMetrics != null) {
+            frameMetrics.recordStages(mTimeline);
+            frameMetrics.recordFrame(now, System.nanoTime() - startNanos, isOnScreen());
         }
+
+        return isRunning;
     }
 
     /**
-     * Draws the right part of the check mark.
+     * Draws the background and then the check mark as a single path, revealed from start to end.
+     * Stage progress comes from {@link #mTimeline}, this draw only keeps frames coming.
      */
-    private class CheckMarkRightAnimatedDraw extends AnimatedDraw {
+    private class CheckMarkAnimatedDraw extends AnimatedDraw {
 
-        private PointF start;
-        private PointF end;
-
-        public CheckMarkRightAnimatedDraw(TimeInterpolator interpolator, int durationMillis) {
+        public CheckMarkAnimatedDraw(TimeInterpolator interpolator, int durationMillis) {
             super(interpolator, durationMillis);
         }
 
         @Override
         public void onFrame(float interpolatedTime) {
-            if (interpolatedTime == 0.0f) {
-                start = new PointF(mCenter.x, mCenter.y + CHECKMARK_LONG_MULTIPLIER * mRadius);
-                end = new PointF(mCenter.x + CHERKMARK_SHORT_MULTIPLIER * mRadius,
-                        mCenter.y - CHECKMARK_LONG_MULTIPLIER * mRadius);
+            // Path is built in onSizeChanged, nothing to prepare here.
+            if (isScheduled()) {
+                // Already advanced by the scheduler for this frame.
+                return;
+            }
+
+            if (advanceTimeline(mFrameClock.uptimeMillis()) && interpolatedTime == 1.0f) {
+                // Frames ran out before the timeline did, keep them coming.
+                startAnimation();
             }
         }
 
         @Override
         public void onDraw(Canvas canvas) {
-            if (start != null && end != null) {
-                float interpolation = getAnimatedValue();
+            if (mState == CheckMarkState.COMPLETED) {
+                // Drawn by onDrawStatics.
+                return;
+            }
+
+            float backgroundValue = mTimeline.getStageValue(mBackgroundStage);
+            float checkMarkValue = mTimeline.getStageValue(mCheckMarkStage);
 
-                canvas.drawLine(start.x, start.y,
-                        start.x + interpolation * (end.x - start.x),
-                        start.y - interpolation * (start.y - end.y),
-                        mCheckMarkPaint);
+            if (mFrameStrip != null) {
+                // Check mark frames already contain the full background.
+                if (checkMarkValue > 0.0f) {
+                    drawCachedFrame(canvas, CheckMarkFrameCache.FRAMES_PER_STAGE, checkMarkValue);
+                } else {
+                    drawCachedFrame(canvas, 0, backgroundValue);
+                }
+            } else {
+                mRenderer.draw(canvas, backgroundValue, checkMarkValue);
             }
         }
     }
@@ -0,0 +1,85 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for {@link CheckMarkDrawable} and the alpha handling of
+ * {@link CheckMarkRenderer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class CheckMarkDrawableTest {
+
+    private static final int SIZE = 96;
+
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+    private CheckMarkDrawable mDrawable;
+
+    @Before
+    public void setUp() throws Exception {
+        mDrawable = new CheckMarkDrawable(RuntimeEnvironment.application);
+        mDrawable.setBounds(0, 0, SIZE, SIZE);
+    }
+
+    @Test
+    public void startStop_followAnimator() throws Exception {
+        assertFalse(mDrawable.isRunning());
+
+        mDrawable.start();
+        assertTrue(mDrawable.isRunning());
+
+        mDrawable.stop();
+        assertFalse(mDrawable.isRunning());
+
+        mDrawable.start();
+        mDrawable.reset();
+        assertFalse(mDrawable.isRunning());
+    }
+
+    @Test
+    public void alpha_scalesOpaqueColors() throws Exception {
+        assertEquals(255, mDrawable.getAlpha());
+
+        mDrawable.setAlpha(100);
+        assertEquals(100, mDrawable.getAlpha());
+
+        // The drawable's renderer, fully drawn. Default colours are opaque.
+        CheckMarkRenderer renderer = new CheckMarkRenderer(CheckMarkView.DEFAULT_BACKGROUND_COLOR,
+                CheckMarkView.DEFAULT_CHECK_MARK_COLOR, 4.0f);
+        renderer.setSize(SIZE, SIZE);
+        renderer.setAlpha(100);
+        renderer.draw(mCanvas, 1.0f, 1.0f);
+
+        assertEquals(100, mCanvas.getLastCirclePaint().getAlpha());
+        assertEquals(100, mCanvas.getLastPathPaint().getAlpha());
+    }
+
+    @Test
+    public void alpha_keepsColorAlpha() throws Exception {
+        CheckMarkRenderer renderer = new CheckMarkRenderer(0x80FF0000, 0x40FFFFFF, 4.0f);
+        renderer.setSize(SIZE, SIZE);
+
+        renderer.setAlpha(255);
+        renderer.draw(mCanvas, 1.0f, 1.0f);
+        assertEquals(0x80, mCanvas.getLastCirclePaint().getAlpha());
+        assertEquals(0x40, mCanvas.getLastPathPaint().getAlpha());
+
+        renderer.setAlpha(128);
+        renderer.draw(mCanvas, 1.0f, 1.0f);
+        assertEquals(0x80 * 128 / 255, mCanvas.getLastCirclePaint().getAlpha());
+        assertEquals(0x40 * 128 / 255, mCanvas.getLastPathPaint().getAlpha());
+        assertEquals(0x80FF0000, renderer.getBackgroundColor());
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import com.hotmail.maximglukhov.animatedviewcore.ManualFrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local unit tests for {@link CheckMarkFrameCache}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class CheckMarkFrameCacheTest {
+
+    private CheckMarkFrameCache mCache;
+
+    @Before
+    public void setUp() throws Exception {
+        mCache = CheckMarkFrameCache.getInstance();
+        mCache.setMaxSize(CheckMarkFrameCache.DEFAULT_MAX_SIZE_BYTES);
+        mCache.evictAll();
+    }
+
+    @Test
+    public void largeFrames_wrapIntoRows() throws Exception {
+        mCache.setMaxSize(16 * 1024 * 1024);
+
+        CheckMarkRenderer renderer = new CheckMarkRenderer(Color.GREEN, Color.WHITE, 4.0f);
+        renderer.setSize(200, 200);
+
+        CheckMarkFrameCache.FrameStrip strip = mCache.acquire(renderer, 1.0f);
+        assertNotNull(strip);
+
+        // 20 frames per row, the last 4 on a second one.
+        assertEquals(20, strip.columnCount);
+        assertTrue(strip.bitmap.getWidth() <= CheckMarkFrameCache.MAX_BITMAP_DIMENSION);
+        assertEquals(400, strip.bitmap.getHeight());
+
+        Rect bounds = new Rect();
+        strip.getFrameBounds(CheckMarkFrameCache.FRAME_COUNT - 1, bounds);
+        assertEquals(new Rect(600, 200, 800, 400), bounds);
+    }
+
+    @Test
+    public void oversizedStrips_areNotCached() throws Exception {
+        // 200dp at 4x: a 4000px square strip, far over the default maximum size.
+        assertFalse(mCache.canCache(800, 800));
+        // Not even a single frame fits a texture.
+        assertFalse(mCache.canCache(CheckMarkFrameCache.MAX_BITMAP_DIMENSION + 1, 10));
+        assertTrue(mCache.canCache(100, 100));
+
+        mCache.setMaxSize(100 * 100 * 4);
+        assertFalse(mCache.canCache(100, 100));
+    }
+
+    @Test
+    public void oversizedView_drawsShapes() throws Exception {
+        int missCount = mCache.missCount();
+
+        ManualFrameClock clock = new ManualFrameClock();
+        CheckMarkView view = new CheckMarkView(RuntimeEnvironment.application);
+        view.setFrameClock(clock);
+        view.setFrameCacheEnabled(true);
+        view.layout(0, 0, 800, 800);
+
+        // Nothing was rendered or cached for the view.
+        assertEquals(missCount, mCache.missCount());
+        assertEquals(0, mCache.size());
+
+        view.runAnimations();
+        clock.advance(75);
+
+        RecordingCanvas canvas = new RecordingCanvas();
+        for (AnimatedDraw animatedDraw : view.getAnimatedDraws()) {
+            animatedDraw.onFrame(0.5f);
+            animatedDraw.onDraw(canvas);
+        }
+
+        assertEquals(1, canvas.getCircleCount());
+        assertEquals(0, canvas.getBitmapCount());
+    }
+
+}
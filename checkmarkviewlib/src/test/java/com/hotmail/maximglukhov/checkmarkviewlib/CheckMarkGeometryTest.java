@@ -0,0 +1,30 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link CheckMarkGeometry}.
+ */
+public class CheckMarkGeometryTest {
+
+    private static final float DELTA = 0.0001f;
+
+    @Test
+    public void set_calculatesCheckMarkPoints() throws Exception {
+        CheckMarkGeometry geometry = new CheckMarkGeometry();
+        geometry.set(100, 200);
+
+        assertEquals(50.0f, geometry.centerX, DELTA);
+        assertEquals(100.0f, geometry.centerY, DELTA);
+        assertEquals(50.0f, geometry.radius, DELTA);
+
+        assertEquals(25.0f, geometry.leftStartX, DELTA);
+        assertEquals(115.0f, geometry.leftStartY, DELTA);
+        assertEquals(50.0f, geometry.jointX, DELTA);
+        assertEquals(125.0f, geometry.jointY, DELTA);
+        assertEquals(65.0f, geometry.rightEndX, DELTA);
+        assertEquals(75.0f, geometry.rightEndY, DELTA);
+    }
+}
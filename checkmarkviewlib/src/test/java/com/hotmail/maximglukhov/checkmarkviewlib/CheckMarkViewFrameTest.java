@@ -0,0 +1,378 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.graphics.Color;
+
+import com.hotmail.maximglukhov.animatedviewcore.ManualAnimationScheduler;
+import com.hotmail.maximglukhov.animatedviewcore.ManualFrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives {@link CheckMarkView} frame by frame from a simulated clock, including dropped
+ * and late frames.
+ *
+ * <p>A frame does what {@link com.hotmail.maximglukhov.animatedviewlib.AnimatedView} does when
+ * drawing: every animated draw gets {@code onFrame}, then statics and animated draws are drawn
+ * on a canvas recording draw operations. Views on their default clock get frames from a
+ * {@link ManualAnimationScheduler} instead.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class CheckMarkViewFrameTest {
+
+    private static final int SIZE = 96;
+    private static final int FRAME_INTERVAL = 16;
+    private static final float DELTA = 0.01f;
+
+    /**
+     * Value passed to onFrame for regular frames, the animator still running.
+     */
+    private static final float MID_ANIMATION = 0.5f;
+
+    private final ManualFrameClock mClock = new ManualFrameClock();
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+
+    private CheckMarkView mView;
+    private List<AnimatedDraw> mAnimatedDraws;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = new CheckMarkView(RuntimeEnvironment.application);
+        mView.setFrameClock(mClock);
+        mView.layout(0, 0, SIZE, SIZE);
+
+        mAnimatedDraws = mView.getAnimatedDraws();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ManualAnimationScheduler.uninstall();
+    }
+
+    @Test
+    public void stages_followClock() throws Exception {
+        mView.runAnimations();
+
+        // Background grows during the first half, check mark isn't drawn yet.
+        frame(75, MID_ANIMATION);
+        assertEquals(1, mCanvas.getCircleCount());
+        assertTrue(mCanvas.getLastCircleRadius() > 0.0f && mCanvas.getLastCircleRadius() < SIZE / 2);
+        assertEquals(0, mCanvas.getPathCount());
+
+        // Full background, check mark being revealed.
+        frame(150, MID_ANIMATION);
+        assertEquals(SIZE / 2, mCanvas.getLastCircleRadius(), DELTA);
+        assertEquals(1, mCanvas.getPathCount());
+        assertEquals(CheckMarkState.ANIMATING, mView.getCheckMarkState());
+
+        frame(75, MID_ANIMATION);
+        assertEquals(CheckMarkState.COMPLETED, mView.getCheckMarkState());
+
+        // Completed image comes from statics only.
+        frame(FRAME_INTERVAL, MID_ANIMATION);
+        assertEquals(1, mCanvas.getBitmapCount());
+        assertEquals(0, mCanvas.getCircleCount() + mCanvas.getPathCount());
+    }
+
+    @Test
+    public void lateFrame_completesAnimation() throws Exception {
+        mView.runAnimations();
+
+        // A single frame long after the animation should have ended.
+        frame(1000, MID_ANIMATION);
+        assertEquals(CheckMarkState.COMPLETED, mView.getCheckMarkState());
+        assertEquals(1.0f, mView.getProgress(), DELTA);
+    }
+
+    @Test
+    public void animatorHandoff_keepsTimelineRunning() throws Exception {
+        mView.runAnimations();
+
+        // The animator ends before the timeline, as when frames were dropped on its side.
+        frame(150, 1.0f);
+        assertEquals(CheckMarkState.ANIMATING, mView.getCheckMarkState());
+
+        for (int i = 0; i < 5; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+        }
+        assertEquals(CheckMarkState.ANIMATING, mView.getCheckMarkState());
+
+        frame(150, MID_ANIMATION);
+        assertEquals(CheckMarkState.COMPLETED, mView.getCheckMarkState());
+    }
+
+    @Test
+    public void reverse_droppedFramesEndIdle() throws Exception {
+        mView.runAnimations();
+        frame(400, MID_ANIMATION);
+
+        mView.reverse();
+        frame(FRAME_INTERVAL, MID_ANIMATION);
+        assertEquals(CheckMarkState.ANIMATING, mView.getCheckMarkState());
+        assertEquals(1, mCanvas.getPathCount());
+
+        frame(1000, MID_ANIMATION);
+        assertEquals(CheckMarkState.IDLE, mView.getCheckMarkState());
+
+        frame(FRAME_INTERVAL, MID_ANIMATION);
+        assertEquals(0, mCanvas.getCircleCount() + mCanvas.getPathCount() + mCanvas.getBitmapCount());
+    }
+
+    @Test
+    public void completedBitmap_heldUntilIdleOrDetached() throws Exception {
+        mView.runAnimations();
+        frame(FRAME_INTERVAL, MID_ANIMATION);
+        assertNull(mView.getCompletedBitmap());
+
+        // Rendered when the state changes, not while drawing.
+        frame(1000, MID_ANIMATION);
+        assertEquals(CheckMarkState.COMPLETED, mView.getCheckMarkState());
+        assertNotNull(mView.getCompletedBitmap());
+
+        mView.onDetachedFromWindow();
+        assertNull(mView.getCompletedBitmap());
+        mView.onAttachedToWindow();
+        assertNotNull(mView.getCompletedBitmap());
+
+        // Kept while seeking, so scrubbing back to the end draws it again.
+        mView.setProgress(0.5f);
+        assertNotNull(mView.getCompletedBitmap());
+        mView.setProgress(1.0f);
+        frame(0, MID_ANIMATION);
+        assertEquals(1, mCanvas.getBitmapCount());
+
+        mView.clearAnimation();
+        assertNull(mView.getCompletedBitmap());
+    }
+
+    @Test
+    public void shapeFrames_doNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Robolectric emulates Path with allocating shadows. Their cost is measured on a
+        // renderer of its own doing the same path operations, and excluded.
+        CheckMarkRenderer pathRenderer = new CheckMarkRenderer(Color.GREEN, Color.WHITE, 4.0f);
+        pathRenderer.setSize(SIZE, SIZE);
+        RecordingCanvas pathCanvas = new RecordingCanvas();
+
+        // Warm up so class loading and JIT compilation don't count.
+        runAnimation();
+        runAnimation();
+        pathRenderer.drawCheckMark(pathCanvas, 0.5f);
+
+        // Cost of measuring itself.
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long allocated = 0;
+        long pathAllocated = 0;
+        int shapeFrameCount = 0;
+        for (int i = 0; i < 20; i++) {
+            mView.setProgress(0.0f);
+            mView.runAnimations();
+
+            // Up to just before completion, which renders the final image once.
+            for (int frame = 0; frame < 18; frame++) {
+                long before = threadBean.getThreadAllocatedBytes(threadId);
+                frame(FRAME_INTERVAL, MID_ANIMATION);
+                allocated += threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+                if (mCanvas.getCircleCount() > 0) {
+                    shapeFrameCount++;
+                }
+                if (mCanvas.getPathCount() > 0) {
+                    // Second half of the animation, accelerating.
+                    float stageFraction = mView.getProgress() * 2.0f - 1.0f;
+
+                    before = threadBean.getThreadAllocatedBytes(threadId);
+                    pathRenderer.drawCheckMark(pathCanvas, stageFraction * stageFraction);
+                    pathAllocated +=
+                            threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+                }
+            }
+        }
+
+        assertEquals("Allocated bytes", 0, Math.max(0, allocated - pathAllocated));
+        assertEquals(20 * 18, shapeFrameCount);
+    }
+
+    @Test
+    public void seekingAcrossCompletion_doesNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up so class loading and JIT compilation don't count.
+        scrubAcrossCompletion(1000);
+
+        // Cost of measuring itself.
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        scrubAcrossCompletion(500);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertEquals("Allocated bytes", 0, Math.max(0, allocated));
+        // Seeking to the end draws shapes, the final image is only rendered by animations.
+        assertNull(mView.getCompletedBitmap());
+    }
+
+    @Test
+    public void scheduler_unregistersWhenCompleted() throws Exception {
+        ManualAnimationScheduler scheduler = ManualAnimationScheduler.install();
+        CheckMarkView view = createScheduledView();
+
+        view.runAnimations();
+        assertEquals(1, scheduler.getClientCount());
+        assertTrue(scheduler.isFrameRequested());
+
+        // Full background, check mark being revealed.
+        assertTrue(scheduler.frame(225));
+        draw(view);
+        assertEquals(CheckMarkState.ANIMATING, view.getCheckMarkState());
+        assertEquals(1, mCanvas.getPathCount());
+
+        // Frames stop coming once the timeline ended.
+        int frameCount = 0;
+        while (scheduler.frame(FRAME_INTERVAL)) {
+            frameCount++;
+            assertTrue(frameCount < 10);
+        }
+        assertEquals(CheckMarkState.COMPLETED, view.getCheckMarkState());
+        assertEquals(0, scheduler.getClientCount());
+
+        draw(view);
+        assertEquals(1, mCanvas.getBitmapCount());
+    }
+
+    @Test
+    public void scheduler_unregistersWhenPaused() throws Exception {
+        ManualAnimationScheduler scheduler = ManualAnimationScheduler.install();
+        CheckMarkView view = createScheduledView();
+
+        view.runAnimations();
+        scheduler.frame(FRAME_INTERVAL);
+        view.setProgress(0.5f);
+
+        assertEquals(0, scheduler.getClientCount());
+        assertFalse(scheduler.isFrameRequested());
+        assertFalse(scheduler.frame(FRAME_INTERVAL));
+    }
+
+    @Test
+    public void cachedFrames_doNotAllocate() throws Exception {
+        // Shape frames go through Path, which Robolectric emulates with allocating shadows.
+        mView.setFrameCacheEnabled(true);
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up so class loading and JIT compilation don't count.
+        runAnimation();
+        runAnimation();
+
+        // Cost of measuring itself.
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long allocated = 0;
+        for (int i = 0; i < 20; i++) {
+            mView.setProgress(0.0f);
+            mView.runAnimations();
+
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int frame = 0; frame < 18; frame++) {
+                frame(FRAME_INTERVAL, MID_ANIMATION);
+            }
+            allocated += threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+        }
+
+        assertEquals("Allocated bytes", 0, Math.max(0, allocated));
+        assertTrue(mCanvas.getBitmapCount() > 0);
+    }
+
+    /**
+     * Create a view on its default clock, laid out.
+     * Views pick up the scheduler they are created with.
+     */
+    private CheckMarkView createScheduledView() {
+        CheckMarkView view = new CheckMarkView(RuntimeEnvironment.application);
+        view.layout(0, 0, SIZE, SIZE);
+
+        return view;
+    }
+
+    /**
+     * Seek back and forth over the end, as a swipe-to-complete gesture would.
+     * @param count Amount of seeks to each side.
+     */
+    private void scrubAcrossCompletion(int count) {
+        for (int i = 0; i < count; i++) {
+            mView.setProgress(0.98f);
+            mView.setProgress(1.0f);
+        }
+    }
+
+    private void runAnimation() {
+        mView.setProgress(0.0f);
+        mView.runAnimations();
+
+        for (int i = 0; i < 30; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+        }
+    }
+
+    /**
+     * Advance the clock and run a single frame.
+     * @param intervalMillis Time since the previous frame.
+     * @param interpolatedTime Value passed to every animated draw's onFrame.
+     */
+    private void frame(long intervalMillis, float interpolatedTime) {
+        mClock.advance(intervalMillis);
+
+        for (int i = 0; i < mAnimatedDraws.size(); i++) {
+            mAnimatedDraws.get(i).onFrame(interpolatedTime);
+        }
+
+        draw(mView, mAnimatedDraws);
+    }
+
+    private void draw(CheckMarkView view) {
+        draw(view, view.getAnimatedDraws());
+    }
+
+    /**
+     * Draw statics and animated draws of the view without running their frames.
+     * @param view View to draw.
+     * @param animatedDraws Animated draws of the view.
+     */
+    private void draw(CheckMarkView view, List<AnimatedDraw> animatedDraws) {
+        mCanvas.reset();
+        view.onDrawStatics(mCanvas);
+        for (int i = 0; i < animatedDraws.size(); i++) {
+            animatedDraws.get(i).onDraw(mCanvas);
+        }
+    }
+
+}
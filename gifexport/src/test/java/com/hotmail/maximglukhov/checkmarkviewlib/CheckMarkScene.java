@@ -0,0 +1,65 @@
+package com.hotmail.maximglukhov.checkmarkviewlib;
+
+import android.content.Context;
+import android.graphics.Canvas;
+
+import com.hotmail.maximglukhov.animatedviewcore.FrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.ManualAnimationScheduler;
+import com.hotmail.maximglukhov.gifexport.GifExporter;
+
+/**
+ * A {@link CheckMarkView} checking after a short pause, then staying checked.
+ *
+ * <p>The view runs on its default clock, with scheduler frames following the simulated clock,
+ * and is drawn like on screen. Call {@link ManualAnimationScheduler#uninstall()} once done.</p>
+ */
+public class CheckMarkScene implements GifExporter.Scene {
+
+    private final Context mContext;
+    private final long mStartDelayMillis;
+
+    private FrameClock mClock;
+    private ManualAnimationScheduler mScheduler;
+    private CheckMarkView mView;
+
+    /**
+     * Simulated time of the previous frame.
+     */
+    private long mLastFrameTimeMillis;
+
+    private boolean mIsStarted;
+
+    /**
+     * @param context Context to create the view with.
+     * @param startDelayMillis Time before the animation starts.
+     */
+    public CheckMarkScene(Context context, long startDelayMillis) {
+        mContext = context;
+        mStartDelayMillis = startDelayMillis;
+    }
+
+    @Override
+    public void start(FrameClock clock, int width, int height) {
+        mClock = clock;
+        mLastFrameTimeMillis = clock.uptimeMillis();
+
+        // Views take the scheduler installed when they're created.
+        mScheduler = ManualAnimationScheduler.install();
+        mView = new CheckMarkView(mContext);
+        mView.layout(0, 0, width, height);
+    }
+
+    @Override
+    public void drawFrame(Canvas canvas) {
+        long now = mClock.uptimeMillis();
+        mScheduler.frame(now - mLastFrameTimeMillis);
+        mLastFrameTimeMillis = now;
+
+        if (!mIsStarted && now >= mStartDelayMillis) {
+            mView.runAnimations();
+            mIsStarted = true;
+        }
+
+        mView.draw(canvas);
+    }
+}
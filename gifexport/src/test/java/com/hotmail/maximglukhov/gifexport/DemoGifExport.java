@@ -0,0 +1,67 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import com.hotmail.maximglukhov.animatedviewcore.ManualAnimationScheduler;
+import com.hotmail.maximglukhov.checkmarkviewlib.CheckMarkScene;
+import com.hotmail.maximglukhov.windowsxprogressbar.WindowsXProgressBarScene;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exports the demo GIFs of the README, named as in {@code demo_res}. Output goes to the
+ * directory given by the {@code gifexport.outputDir} system property.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23, shadows = ShadowRasterCanvas.class)
+public class DemoGifExport {
+
+    private static final int FRAMES_PER_SECOND = 50;
+    private static final int BACKGROUND_COLOR = 0xFFFFFFFF;
+
+    /**
+     * Defines where GIFs are written unless set by the build.
+     */
+    private static final String DEFAULT_OUTPUT_DIR = "build/gifs";
+
+    @After
+    public void tearDown() throws Exception {
+        ManualAnimationScheduler.uninstall();
+    }
+
+    @Test
+    public void checkMark() throws Exception {
+        export("animatedview_checkmark_gif.gif", new CheckMarkScene(RuntimeEnvironment.application, 500),
+                144, 144, 2000);
+    }
+
+    @Test
+    public void windowsXProgressBarHorizontal() throws Exception {
+        // One loop of five dots: 4 * 300ms apart, 1500ms each.
+        export("animatedview_winxpbh_gif.gif", new WindowsXProgressBarScene(true),
+                480, 60, 2700);
+    }
+
+    @Test
+    public void windowsXProgressBarCircular() throws Exception {
+        export("animatedview_winxpbnh_gif.gif", new WindowsXProgressBarScene(false),
+                144, 144, 2700);
+    }
+
+    private static void export(String name, GifExporter.Scene scene, int width, int height,
+                               long durationMillis) throws Exception {
+        File outputDir = new File(System.getProperty("gifexport.outputDir", DEFAULT_OUTPUT_DIR));
+        assertTrue("Can't create " + outputDir, outputDir.isDirectory() || outputDir.mkdirs());
+
+        File file = new File(outputDir, name);
+        new GifExporter(width, height, FRAMES_PER_SECOND, BACKGROUND_COLOR)
+                .export(scene, durationMillis, file);
+    }
+}
@@ -0,0 +1,482 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Streaming GIF encoder. Frames are quantised and written as they come, so memory stays
+ * the same however many frames are written.
+ *
+ * <p>Every frame gets its own palette of at most 256 colours. Colours are binned at 5 bits per
+ * channel; when more than 256 bins are used, they are grouped by median cut, weighted by pixel
+ * count, and every group becomes a palette colour. Pixels are treated as opaque.</p>
+ */
+public final class GifEncoder implements Closeable {
+
+    private static final int CHANNEL_BITS = 5;
+    private static final int BIN_COUNT = 1 << (CHANNEL_BITS * 3);
+    private static final int MAX_COLORS = 256;
+
+    /**
+     * Graphic control disposal method leaving the frame in place for the next one.
+     */
+    private static final int DISPOSAL_DO_NOT_DISPOSE = 1;
+
+    private final OutputStream mOut;
+    private final int mWidth;
+    private final int mHeight;
+
+    /**
+     * Pixel count, summed colour channels and palette index of every colour bin.
+     */
+    private final int[] mBinCounts = new int[BIN_COUNT];
+    private final long[] mBinRed = new long[BIN_COUNT];
+    private final long[] mBinGreen = new long[BIN_COUNT];
+    private final long[] mBinBlue = new long[BIN_COUNT];
+    private final byte[] mBinIndices = new byte[BIN_COUNT];
+    /**
+     * Bins used by the current frame, so only those are cleared for the next one.
+     */
+    private final int[] mUsedBins = new int[BIN_COUNT];
+    private int mUsedBinCount;
+    /**
+     * Median cut sort keys, channel value in the upper half and bin in the lower half.
+     */
+    private final long[] mSortKeys = new long[BIN_COUNT];
+    /**
+     * Median cut boxes as ranges of {@link #mUsedBins}, start inclusive and end exclusive.
+     */
+    private final int[] mBoxStarts = new int[MAX_COLORS];
+    private final int[] mBoxEnds = new int[MAX_COLORS];
+
+    private final int[] mPalette = new int[MAX_COLORS];
+    private int mPaletteSize;
+
+    private final byte[] mIndexedPixels;
+    private final LzwEncoder mLzwEncoder = new LzwEncoder();
+
+    private boolean mIsClosed;
+
+    /**
+     * Write the GIF header. The animation loops forever.
+     * @param out Stream to write to, closed with this encoder.
+     * @param width Image width in pixels.
+     * @param height Image height in pixels.
+     * @throws IOException If writing failed.
+     */
+    public GifEncoder(OutputStream out, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0 || width > 0xFFFF || height > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        }
+
+        mOut = out;
+        mWidth = width;
+        mHeight = height;
+        mIndexedPixels = new byte[width * height];
+
+        writeAscii("GIF89a");
+
+        // Logical screen descriptor without a global colour table.
+        writeShort(width);
+        writeShort(height);
+        mOut.write(0);
+        mOut.write(0);
+        mOut.write(0);
+
+        // Application extension looping forever.
+        mOut.write(0x21);
+        mOut.write(0xFF);
+        mOut.write(11);
+        writeAscii("NETSCAPE2.0");
+        mOut.write(3);
+        mOut.write(1);
+        writeShort(0);
+        mOut.write(0);
+    }
+
+    /**
+     * Write a frame covering part of the image. The rest keeps the previous frame.
+     * @param argb Pixels of the whole image, row by row.
+     * @param stride Pixels per row in {@code argb}.
+     * @param left Left edge of the frame.
+     * @param top Top edge of the frame.
+     * @param width Frame width.
+     * @param height Frame height.
+     * @param delayCentis Time the frame is shown, in hundredths of a second.
+     * @throws IOException If writing failed.
+     */
+    public void writeFrame(int[] argb, int stride, int left, int top, int width, int height,
+                           int delayCentis) throws IOException {
+        if (mIsClosed) {
+            throw new IllegalStateException("Encoder is closed");
+        }
+        if (left < 0 || top < 0 || width <= 0 || height <= 0
+                || left + width > mWidth || top + height > mHeight) {
+            throw new IllegalArgumentException("Frame out of bounds: " + left + "," + top
+                    + " " + width + "x" + height);
+        }
+
+        quantise(argb, stride, left, top, width, height);
+
+        int colorBits = 1;
+        while ((1 << colorBits) < mPaletteSize) {
+            colorBits++;
+        }
+
+        // Graphic control extension.
+        mOut.write(0x21);
+        mOut.write(0xF9);
+        mOut.write(4);
+        mOut.write(DISPOSAL_DO_NOT_DISPOSE << 2);
+        writeShort(Math.max(0, Math.min(0xFFFF, delayCentis)));
+        mOut.write(0);
+        mOut.write(0);
+
+        // Image descriptor with a local colour table.
+        mOut.write(0x2C);
+        writeShort(left);
+        writeShort(top);
+        writeShort(width);
+        writeShort(height);
+        mOut.write(0x80 | (colorBits - 1));
+
+        for (int i = 0; i < (1 << colorBits); i++) {
+            int color = i < mPaletteSize ? mPalette[i] : 0;
+            mOut.write((color >> 16) & 0xFF);
+            mOut.write((color >> 8) & 0xFF);
+            mOut.write(color & 0xFF);
+        }
+
+        mLzwEncoder.encode(mIndexedPixels, width * height, Math.max(2, colorBits), mOut);
+    }
+
+    /**
+     * Write the trailer and close the stream.
+     * @throws IOException If writing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mIsClosed) {
+            return;
+        }
+
+        mIsClosed = true;
+        try {
+            mOut.write(0x3B);
+            mOut.flush();
+        } finally {
+            mOut.close();
+        }
+    }
+
+    /**
+     * Build the palette of a frame and fill {@link #mIndexedPixels}.
+     */
+    private void quantise(int[] argb, int stride, int left, int top, int width, int height) {
+        for (int i = 0; i < mUsedBinCount; i++) {
+            int bin = mUsedBins[i];
+            mBinCounts[bin] = 0;
+            mBinRed[bin] = 0;
+            mBinGreen[bin] = 0;
+            mBinBlue[bin] = 0;
+        }
+        mUsedBinCount = 0;
+
+        for (int y = 0; y < height; y++) {
+            int offset = (top + y) * stride + left;
+            for (int x = 0; x < width; x++) {
+                int color = argb[offset + x];
+                int bin = binOf(color);
+
+                if (mBinCounts[bin] == 0) {
+                    mUsedBins[mUsedBinCount++] = bin;
+                }
+                mBinCounts[bin]++;
+                mBinRed[bin] += (color >> 16) & 0xFF;
+                mBinGreen[bin] += (color >> 8) & 0xFF;
+                mBinBlue[bin] += color & 0xFF;
+            }
+        }
+
+        if (mUsedBinCount <= MAX_COLORS) {
+            // Every bin gets its own colour.
+            mPaletteSize = mUsedBinCount;
+            for (int i = 0; i < mUsedBinCount; i++) {
+                int bin = mUsedBins[i];
+                mPalette[i] = averageColor(bin);
+                mBinIndices[bin] = (byte) i;
+            }
+        } else {
+            medianCut();
+        }
+
+        int index = 0;
+        for (int y = 0; y < height; y++) {
+            int offset = (top + y) * stride + left;
+            for (int x = 0; x < width; x++) {
+                mIndexedPixels[index++] = mBinIndices[binOf(argb[offset + x])];
+            }
+        }
+    }
+
+    /**
+     * Split used bins into {@link #MAX_COLORS} boxes, always splitting the box spanning the
+     * widest channel range at its weighted median, and make every box a palette colour.
+     */
+    private void medianCut() {
+        int boxCount = 1;
+        mBoxStarts[0] = 0;
+        mBoxEnds[0] = mUsedBinCount;
+
+        while (boxCount < MAX_COLORS) {
+            int widestBox = -1;
+            int widestShift = 0;
+            int widestRange = 0;
+
+            for (int box = 0; box < boxCount; box++) {
+                if (mBoxEnds[box] - mBoxStarts[box] < 2) {
+                    continue;
+                }
+
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int range = channelRange(box, shift);
+                    if (range > widestRange) {
+                        widestBox = box;
+                        widestShift = shift;
+                        widestRange = range;
+                    }
+                }
+            }
+
+            if (widestBox < 0) {
+                break;
+            }
+
+            int start = mBoxStarts[widestBox];
+            int end = mBoxEnds[widestBox];
+
+            // Sort the box's bins along the widest channel.
+            long total = 0;
+            for (int i = start; i < end; i++) {
+                int bin = mUsedBins[i];
+                mSortKeys[i] = ((long) ((averageColor(bin) >> widestShift) & 0xFF) << 32) | bin;
+                total += mBinCounts[bin];
+            }
+            Arrays.sort(mSortKeys, start, end);
+
+            long seen = 0;
+            int split = start + 1;
+            for (int i = start; i < end; i++) {
+                int bin = (int) mSortKeys[i];
+                mUsedBins[i] = bin;
+
+                seen += mBinCounts[bin];
+                if (seen * 2 <= total) {
+                    split = i + 1;
+                }
+            }
+            split = Math.max(start + 1, Math.min(end - 1, split));
+
+            mBoxEnds[widestBox] = split;
+            mBoxStarts[boxCount] = split;
+            mBoxEnds[boxCount] = end;
+            boxCount++;
+        }
+
+        mPaletteSize = boxCount;
+        for (int box = 0; box < boxCount; box++) {
+            long red = 0;
+            long green = 0;
+            long blue = 0;
+            long count = 0;
+
+            for (int i = mBoxStarts[box]; i < mBoxEnds[box]; i++) {
+                int bin = mUsedBins[i];
+                red += mBinRed[bin];
+                green += mBinGreen[bin];
+                blue += mBinBlue[bin];
+                count += mBinCounts[bin];
+                mBinIndices[bin] = (byte) box;
+            }
+
+            mPalette[box] = (int) (red / count) << 16 | (int) (green / count) << 8
+                    | (int) (blue / count);
+        }
+    }
+
+    /**
+     * @return Difference between the largest and smallest value of a channel within a box.
+     */
+    private int channelRange(int box, int shift) {
+        int min = 0xFF;
+        int max = 0;
+        for (int i = mBoxStarts[box]; i < mBoxEnds[box]; i++) {
+            int value = (averageColor(mUsedBins[i]) >> shift) & 0xFF;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        return max - min;
+    }
+
+    private int averageColor(int bin) {
+        int count = mBinCounts[bin];
+
+        return (int) (mBinRed[bin] / count) << 16
+                | (int) (mBinGreen[bin] / count) << 8
+                | (int) (mBinBlue[bin] / count);
+    }
+
+    private static int binOf(int color) {
+        int shift = 8 - CHANNEL_BITS;
+
+        return (((color >> 16) & 0xFF) >> shift) << (CHANNEL_BITS * 2)
+                | (((color >> 8) & 0xFF) >> shift) << CHANNEL_BITS
+                | ((color & 0xFF) >> shift);
+    }
+
+    private void writeShort(int value) throws IOException {
+        mOut.write(value & 0xFF);
+        mOut.write((value >> 8) & 0xFF);
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            mOut.write(text.charAt(i));
+        }
+    }
+
+    /**
+     * Variable code size LZW compression as used by GIF, written as data sub-blocks.
+     */
+    private static final class LzwEncoder {
+
+        private static final int MAX_BITS = 12;
+        private static final int MAX_CODE_COUNT = 1 << MAX_BITS;
+        /**
+         * Prime larger than the code count, keeping open addressing probes short.
+         */
+        private static final int HASH_SIZE = 5003;
+
+        /**
+         * Prefix code and appended index of every table entry, or -1 if free.
+         */
+        private final int[] mHashKeys = new int[HASH_SIZE];
+        private final int[] mHashCodes = new int[HASH_SIZE];
+
+        private final byte[] mBlock = new byte[255];
+        private int mBlockLength;
+
+        private OutputStream mOut;
+        private int mMinCodeSize;
+        private int mClearCode;
+        private int mCodeSize;
+        private int mMaxCode;
+        private int mNextCode;
+        private boolean mIsClearing;
+
+        private int mBitBuffer;
+        private int mBitCount;
+
+        void encode(byte[] pixels, int count, int minCodeSize, OutputStream out)
+                throws IOException {
+            mOut = out;
+            mMinCodeSize = minCodeSize;
+            mClearCode = 1 << minCodeSize;
+            mBlockLength = 0;
+            mBitBuffer = 0;
+            mBitCount = 0;
+            mIsClearing = false;
+            resetTable();
+
+            out.write(minCodeSize);
+            writeCode(mClearCode);
+
+            int prefix = pixels[0] & 0xFF;
+            for (int i = 1; i < count; i++) {
+                int index = pixels[i] & 0xFF;
+                int key = (prefix << 8) | index;
+
+                int hash = (index << 4) ^ prefix;
+                int step = hash == 0 ? 1 : HASH_SIZE - hash;
+                while (mHashKeys[hash] >= 0 && mHashKeys[hash] != key) {
+                    hash -= step;
+                    if (hash < 0) {
+                        hash += HASH_SIZE;
+                    }
+                }
+
+                if (mHashKeys[hash] == key) {
+                    prefix = mHashCodes[hash];
+                    continue;
+                }
+
+                writeCode(prefix);
+                prefix = index;
+
+                if (mNextCode < MAX_CODE_COUNT) {
+                    mHashKeys[hash] = key;
+                    mHashCodes[hash] = mNextCode++;
+                } else {
+                    // Table full, start over. The clear code still uses the full code size.
+                    mIsClearing = true;
+                    writeCode(mClearCode);
+                    resetTable();
+                }
+            }
+
+            writeCode(prefix);
+            writeCode(mClearCode + 1);
+
+            if (mBitCount > 0) {
+                writeByte(mBitBuffer & 0xFF);
+            }
+            flushBlock();
+            out.write(0);
+
+            mOut = null;
+        }
+
+        private void resetTable() {
+            Arrays.fill(mHashKeys, -1);
+            mNextCode = mClearCode + 2;
+            mCodeSize = mMinCodeSize + 1;
+            mMaxCode = (1 << mCodeSize) - 1;
+        }
+
+        private void writeCode(int code) throws IOException {
+            mBitBuffer |= code << mBitCount;
+            mBitCount += mCodeSize;
+            while (mBitCount >= 8) {
+                writeByte(mBitBuffer & 0xFF);
+                mBitBuffer >>>= 8;
+                mBitCount -= 8;
+            }
+
+            // Decoders grow the code size one code after the table outgrows it.
+            if (mIsClearing) {
+                mIsClearing = false;
+            } else if (mNextCode > mMaxCode && mCodeSize < MAX_BITS) {
+                mCodeSize++;
+                mMaxCode = mCodeSize == MAX_BITS ? MAX_CODE_COUNT : (1 << mCodeSize) - 1;
+            }
+        }
+
+        private void writeByte(int value) throws IOException {
+            mBlock[mBlockLength++] = (byte) value;
+            if (mBlockLength == mBlock.length) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (mBlockLength > 0) {
+                mOut.write(mBlockLength);
+                mOut.write(mBlock, 0, mBlockLength);
+                mBlockLength = 0;
+            }
+        }
+    }
+}
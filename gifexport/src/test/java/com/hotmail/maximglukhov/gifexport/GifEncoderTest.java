@@ -0,0 +1,107 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Encodes frames with {@link GifEncoder} and decodes them back with ImageIO.
+ */
+public class GifEncoderTest {
+
+    @Test
+    public void fewColors_roundTripExactly() throws Exception {
+        // Noise compresses badly, so the code table fills up and is cleared several times.
+        int width = 200;
+        int height = 150;
+        int[] pixels = new int[width * height];
+        int[] colors = new int[200];
+
+        Random random = new Random(42);
+        for (int i = 0; i < colors.length; i++) {
+            // Distinct 5 bit colour bins, so every colour keeps its exact value.
+            colors[i] = 0xFF000000 | (i % 8) << 21 | (i / 8 % 8) << 13 | (i / 64) << 5;
+        }
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = colors[random.nextInt(colors.length)];
+        }
+
+        ImageReader reader = encodeAndRead(width, height, pixels, width, 0, 0, width, height);
+        assertEquals(1, reader.getNumImages(true));
+
+        BufferedImage image = reader.read(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(pixels[y * width + x], image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void manyColors_mapToNearest() throws Exception {
+        int width = 256;
+        int height = 64;
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = 0xFF000000 | x << 16 | (y * 4) << 8 | (255 - x);
+            }
+        }
+
+        BufferedImage image = encodeAndRead(width, height, pixels, width, 0, 0, width, height)
+                .read(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int expected = pixels[y * width + x];
+                int actual = image.getRGB(x, y);
+
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int difference = ((expected >> shift) & 0xFF) - ((actual >> shift) & 0xFF);
+                    assertTrue("Pixel " + x + "," + y, Math.abs(difference) <= 48);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void partialFrame_coversRegionOnly() throws Exception {
+        int width = 40;
+        int height = 30;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i % width < 20 ? 0xFFFF0000 : 0xFF0000FF;
+        }
+
+        BufferedImage image = encodeAndRead(width, height, pixels, width, 10, 5, 20, 10).read(0);
+        assertEquals(20, image.getWidth());
+        assertEquals(10, image.getHeight());
+        assertEquals(0xFFFF0000, image.getRGB(9, 0));
+        assertEquals(0xFF0000FF, image.getRGB(10, 9));
+    }
+
+    private static ImageReader encodeAndRead(int width, int height, int[] pixels, int stride,
+                                             int left, int top, int frameWidth,
+                                             int frameHeight) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GifEncoder encoder = new GifEncoder(out, width, height);
+        encoder.writeFrame(pixels, stride, left, top, frameWidth, frameHeight, 4);
+        encoder.close();
+
+        ImageInputStream in = ImageIO.createImageInputStream(
+                new ByteArrayInputStream(out.toByteArray()));
+        ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+        reader.setInput(in);
+
+        return reader;
+    }
+}
@@ -0,0 +1,186 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import android.graphics.Canvas;
+
+import com.hotmail.maximglukhov.animatedviewcore.FrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.ManualFrameClock;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Renders a {@link Scene} offscreen at a fixed frame rate from a simulated clock
+ * and streams it into a GIF.
+ *
+ * <p>Frames are rendered into a pool of two images: the frame waiting to be written and the one
+ * being rendered. Only the area that changed since the previous frame is written, and identical
+ * frames extend the previous frame's delay instead of being written, so memory stays the same
+ * however long the clip is.</p>
+ */
+public final class GifExporter {
+
+    /**
+     * Browsers slow down GIF frames shorter than 2 hundredths of a second.
+     */
+    public static final int MAX_FRAMES_PER_SECOND = 50;
+
+    private static final int POOL_SIZE = 2;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int mFramesPerSecond;
+    private final int mBackgroundColor;
+
+    private final BufferedImage[] mImages = new BufferedImage[POOL_SIZE];
+    private final int[][] mPixels = new int[POOL_SIZE][];
+    private final RasterCanvas[] mCanvases = new RasterCanvas[POOL_SIZE];
+
+    /**
+     * Area that changed between the last two frames: left, top, right and bottom, exclusive.
+     */
+    private final int[] mDirtyRect = new int[4];
+    private final int[] mPendingRect = new int[4];
+
+    /**
+     * @param width Image width in pixels.
+     * @param height Image height in pixels.
+     * @param framesPerSecond Frame rate, up to {@link #MAX_FRAMES_PER_SECOND}.
+     * @param backgroundColor Opaque colour drawn behind every frame.
+     */
+    public GifExporter(int width, int height, int framesPerSecond, int backgroundColor) {
+        if (framesPerSecond <= 0 || framesPerSecond > MAX_FRAMES_PER_SECOND) {
+            throw new IllegalArgumentException("Invalid frame rate: " + framesPerSecond);
+        }
+
+        mWidth = width;
+        mHeight = height;
+        mFramesPerSecond = framesPerSecond;
+        mBackgroundColor = backgroundColor | 0xFF000000;
+
+        for (int i = 0; i < POOL_SIZE; i++) {
+            mImages[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            mPixels[i] = ((DataBufferInt) mImages[i].getRaster().getDataBuffer()).getData();
+            mCanvases[i] = new RasterCanvas(mImages[i]);
+        }
+    }
+
+    /**
+     * Render a scene and write it as a looping GIF.
+     * @param scene Scene to render, started from time 0.
+     * @param durationMillis Clip duration.
+     * @param file File to write.
+     * @throws IOException If writing failed.
+     */
+    public void export(Scene scene, long durationMillis, File file) throws IOException {
+        ManualFrameClock clock = new ManualFrameClock();
+        scene.start(clock, mWidth, mHeight);
+
+        long frameCount = Math.max(1, durationMillis * mFramesPerSecond / 1000);
+
+        GifEncoder encoder = new GifEncoder(
+                new BufferedOutputStream(new FileOutputStream(file)), mWidth, mHeight);
+        try {
+            // Pool image holding the frame waiting to be written, and when it started.
+            int pending = -1;
+            long pendingTime = 0;
+
+            for (long frame = 0; frame < frameCount; frame++) {
+                long time = frame * 1000 / mFramesPerSecond;
+                clock.setTime(time);
+
+                int current = pending < 0 ? 0 : (pending + 1) % POOL_SIZE;
+                RasterCanvas canvas = mCanvases[current];
+                canvas.clear(mBackgroundColor);
+                scene.drawFrame(canvas);
+
+                if (pending < 0) {
+                    setRect(mPendingRect, 0, 0, mWidth, mHeight);
+                } else if (findChanges(mPixels[pending], mPixels[current], mDirtyRect)) {
+                    writeFrame(encoder, pending, pendingTime, time);
+                    System.arraycopy(mDirtyRect, 0, mPendingRect, 0, mDirtyRect.length);
+                } else {
+                    // Nothing changed, the pending frame simply stays longer.
+                    continue;
+                }
+
+                pending = current;
+                pendingTime = time;
+            }
+
+            writeFrame(encoder, pending, pendingTime, durationMillis);
+        } finally {
+            encoder.close();
+        }
+    }
+
+    private void writeFrame(GifEncoder encoder, int image, long startMillis, long endMillis)
+            throws IOException {
+        // Rounding both ends keeps the total duration exact at any frame rate.
+        int delayCentis = (int) (Math.round(endMillis / 10.0) - Math.round(startMillis / 10.0));
+
+        encoder.writeFrame(mPixels[image], mWidth, mPendingRect[0], mPendingRect[1],
+                mPendingRect[2] - mPendingRect[0], mPendingRect[3] - mPendingRect[1],
+                delayCentis);
+    }
+
+    /**
+     * Find the area that differs between two frames.
+     * @return False if the frames are identical.
+     */
+    private boolean findChanges(int[] previous, int[] current, int[] outRect) {
+        int left = mWidth;
+        int top = mHeight;
+        int right = 0;
+        int bottom = 0;
+
+        for (int y = 0; y < mHeight; y++) {
+            int offset = y * mWidth;
+            for (int x = 0; x < mWidth; x++) {
+                if (previous[offset + x] != current[offset + x]) {
+                    left = Math.min(left, x);
+                    right = Math.max(right, x + 1);
+                    top = Math.min(top, y);
+                    bottom = y + 1;
+                }
+            }
+        }
+
+        if (right == 0) {
+            return false;
+        }
+
+        setRect(outRect, left, top, right, bottom);
+        return true;
+    }
+
+    private static void setRect(int[] rect, int left, int top, int right, int bottom) {
+        rect[0] = left;
+        rect[1] = top;
+        rect[2] = right;
+        rect[3] = bottom;
+    }
+
+    /**
+     * Animated content rendered by {@link GifExporter}.
+     */
+    public interface Scene {
+
+        /**
+         * Create and lay out views. Called once before the first frame.
+         * @param clock Simulated clock the scene's animations must follow.
+         * @param width Frame width in pixels.
+         * @param height Frame height in pixels.
+         */
+        void start(FrameClock clock, int width, int height);
+
+        /**
+         * Advance animations to the clock's current time and draw a frame.
+         * @param canvas Canvas to draw on, already cleared.
+         */
+        void drawFrame(Canvas canvas);
+    }
+}
@@ -0,0 +1,273 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowPath;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canvas rasterising into a {@link BufferedImage}, since Robolectric's canvas only records calls.
+ *
+ * <p>Covers what the animated views draw: circles, points, lines, rectangles and paths made of
+ * straight lines, with translation and scaling. Everything else is ignored.</p>
+ *
+ * <p>Bitmaps have no pixels under Robolectric either, so what's drawn into one through
+ * {@link ShadowRasterCanvas} goes into an image kept for that bitmap, which
+ * {@link #drawBitmap} then draws.</p>
+ */
+public class RasterCanvas extends Canvas {
+
+    /**
+     * Canvases holding the images drawn into bitmaps, by bitmap.
+     */
+    private static final Map<Bitmap, RasterCanvas> sBitmapCanvases = new WeakHashMap<>();
+
+    private final BufferedImage mImage;
+    private final Graphics2D mGraphics;
+
+    /**
+     * Transforms saved by {@link #save()}.
+     */
+    private final List<AffineTransform> mSavedTransforms = new ArrayList<>();
+
+    private final Ellipse2D.Float mEllipse = new Ellipse2D.Float();
+    private final Line2D.Float mLine = new Line2D.Float();
+    private final Rectangle2D.Float mRect = new Rectangle2D.Float();
+    private final Path2D.Float mPath = new Path2D.Float();
+
+    /**
+     * @param image Image to draw into.
+     */
+    public RasterCanvas(BufferedImage image) {
+        mImage = image;
+
+        mGraphics = image.createGraphics();
+        mGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        mGraphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+                RenderingHints.VALUE_STROKE_PURE);
+    }
+
+    /**
+     * @param bitmap Bitmap to draw into.
+     * @return Canvas drawing into the image kept for the bitmap.
+     */
+    static RasterCanvas forBitmap(Bitmap bitmap) {
+        RasterCanvas canvas = sBitmapCanvases.get(bitmap);
+        if (canvas == null) {
+            canvas = new RasterCanvas(new BufferedImage(bitmap.getWidth(), bitmap.getHeight(),
+                    BufferedImage.TYPE_INT_ARGB));
+            sBitmapCanvases.put(bitmap, canvas);
+        }
+
+        return canvas;
+    }
+
+    /**
+     * Fill the whole image and forget saved transforms, ready for a new frame.
+     * @param color Background colour.
+     */
+    public void clear(int color) {
+        mSavedTransforms.clear();
+        mGraphics.setTransform(new AffineTransform());
+
+        mGraphics.setColor(new Color(color, true));
+        mGraphics.fillRect(0, 0, mImage.getWidth(), mImage.getHeight());
+    }
+
+    @Override
+    public int getWidth() {
+        return mImage.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return mImage.getHeight();
+    }
+
+    @Override
+    public int save() {
+        // Save count before saving, like the framework's, which starts at 1.
+        int saveCount = mSavedTransforms.size() + 1;
+        mSavedTransforms.add(mGraphics.getTransform());
+
+        return saveCount;
+    }
+
+    @Override
+    public void restore() {
+        if (!mSavedTransforms.isEmpty()) {
+            mGraphics.setTransform(mSavedTransforms.remove(mSavedTransforms.size() - 1));
+        }
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        while (mSavedTransforms.size() + 1 > saveCount && !mSavedTransforms.isEmpty()) {
+            restore();
+        }
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mGraphics.translate(dx, dy);
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+        mGraphics.scale(sx, sy);
+    }
+
+    @Override
+    public void drawColor(int color) {
+        AffineTransform transform = mGraphics.getTransform();
+        mGraphics.setTransform(new AffineTransform());
+        mGraphics.setColor(new Color(color, true));
+        mGraphics.fillRect(0, 0, mImage.getWidth(), mImage.getHeight());
+        mGraphics.setTransform(transform);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        mEllipse.setFrame(cx - radius, cy - radius, radius * 2, radius * 2);
+        drawShape(mEllipse, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        mRect.setRect(left, top, right - left, bottom - top);
+        drawShape(mRect, paint);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mLine.setLine(startX, startY, stopX, stopY);
+        strokeShape(mLine, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        RasterCanvas source = sBitmapCanvases.get(bitmap);
+        if (source == null) {
+            // Never drawn into.
+            return;
+        }
+
+        mGraphics.drawImage(source.mImage, Math.round(left), Math.round(top), null);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        RasterCanvas source = sBitmapCanvases.get(bitmap);
+        if (source == null) {
+            // Never drawn into.
+            return;
+        }
+
+        BufferedImage image = source.mImage;
+        if (src == null) {
+            mGraphics.drawImage(image, dst.left, dst.top, dst.right, dst.bottom,
+                    0, 0, image.getWidth(), image.getHeight(), null);
+        } else {
+            mGraphics.drawImage(image, dst.left, dst.top, dst.right, dst.bottom,
+                    src.left, src.top, src.right, src.bottom, null);
+        }
+    }
+
+    @Override
+    public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        float size = Math.max(1.0f, paint.getStrokeWidth());
+        float half = size / 2;
+        boolean isRound = paint.getStrokeCap() == Paint.Cap.ROUND;
+
+        mGraphics.setColor(new Color(paint.getColor(), true));
+        for (int i = 0; i + 1 < count; i += 2) {
+            float x = pts[offset + i];
+            float y = pts[offset + i + 1];
+
+            if (isRound) {
+                mEllipse.setFrame(x - half, y - half, size, size);
+                mGraphics.fill(mEllipse);
+            } else {
+                mRect.setRect(x - half, y - half, size, size);
+                mGraphics.fill(mRect);
+            }
+        }
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        mPath.reset();
+
+        List<ShadowPath.Point> points = Shadows.shadowOf(path).getPoints();
+        for (int i = 0; i < points.size(); i++) {
+            ShadowPath.Point point = points.get(i);
+            if (point.getType() == ShadowPath.Point.Type.MOVE_TO || i == 0) {
+                mPath.moveTo(point.getX(), point.getY());
+            } else {
+                mPath.lineTo(point.getX(), point.getY());
+            }
+        }
+
+        drawShape(mPath, paint);
+    }
+
+    private void drawShape(Shape shape, Paint paint) {
+        Paint.Style style = paint.getStyle();
+
+        if (style != Paint.Style.STROKE) {
+            mGraphics.setColor(new Color(paint.getColor(), true));
+            mGraphics.fill(shape);
+        }
+        if (style != Paint.Style.FILL) {
+            strokeShape(shape, paint);
+        }
+    }
+
+    private void strokeShape(Shape shape, Paint paint) {
+        mGraphics.setColor(new Color(paint.getColor(), true));
+        mGraphics.setStroke(new BasicStroke(Math.max(1.0f, paint.getStrokeWidth()),
+                toAwtCap(paint.getStrokeCap()), toAwtJoin(paint.getStrokeJoin())));
+        mGraphics.draw(shape);
+    }
+
+    private static int toAwtCap(Paint.Cap cap) {
+        if (cap == Paint.Cap.ROUND) {
+            return BasicStroke.CAP_ROUND;
+        } else if (cap == Paint.Cap.SQUARE) {
+            return BasicStroke.CAP_SQUARE;
+        }
+
+        return BasicStroke.CAP_BUTT;
+    }
+
+    private static int toAwtJoin(Paint.Join join) {
+        if (join == Paint.Join.ROUND) {
+            return BasicStroke.JOIN_ROUND;
+        } else if (join == Paint.Join.BEVEL) {
+            return BasicStroke.JOIN_BEVEL;
+        }
+
+        return BasicStroke.JOIN_MITER;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hotmail.maximglukhov.gifexport;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowCanvas;
+
+/**
+ * Canvas shadow also rasterising what's drawn into a bitmap, so views drawing cached bitmaps
+ * show up in the GIFs. See {@link RasterCanvas#forBitmap(Bitmap)}.
+ *
+ * <p>Covers what the completed check mark image is drawn with: circles and paths, without
+ * transforms.</p>
+ */
+@Implements(Canvas.class)
+public class ShadowRasterCanvas extends ShadowCanvas {
+
+    /**
+     * Canvas drawing into the image kept for the bitmap, null if not drawing into a bitmap.
+     */
+    private RasterCanvas mBitmapCanvas;
+
+    @Override
+    public void __constructor__(Bitmap bitmap) {
+        super.__constructor__(bitmap);
+        mBitmapCanvas = RasterCanvas.forBitmap(bitmap);
+    }
+
+    @Implementation
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        super.drawCircle(cx, cy, radius, paint);
+        if (mBitmapCanvas != null) {
+            mBitmapCanvas.drawCircle(cx, cy, radius, paint);
+        }
+    }
+
+    @Implementation
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        super.drawPath(path, paint);
+        if (mBitmapCanvas != null) {
+            mBitmapCanvas.drawPath(path, paint);
+        }
+    }
+}
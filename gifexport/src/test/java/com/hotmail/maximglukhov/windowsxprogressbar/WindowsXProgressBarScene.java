@@ -0,0 +1,73 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.hotmail.maximglukhov.animatedviewcore.FrameClock;
+import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
+import com.hotmail.maximglukhov.gifexport.GifExporter;
+
+import org.robolectric.Robolectric;
+import org.robolectric.util.ActivityController;
+
+import java.util.List;
+
+/**
+ * An indeterminate {@link WindowsXProgressBar}, horizontal or circular.
+ */
+public class WindowsXProgressBarScene implements GifExporter.Scene {
+
+    /**
+     * Value passed to onFrame, animators still running.
+     */
+    private static final float MID_ANIMATION = 0.5f;
+
+    private final boolean mIsHorizontal;
+
+    private WindowsXProgressBar mView;
+    private List<AnimatedDraw> mAnimatedDraws;
+
+    /**
+     * @param horizontal True for dots moving along a line, false for a circle.
+     */
+    public WindowsXProgressBarScene(boolean horizontal) {
+        mIsHorizontal = horizontal;
+    }
+
+    @Override
+    public void start(FrameClock clock, int width, int height) {
+        // Dots only animate in a shown window with focus.
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class)
+                .create();
+        Activity activity = controller.get();
+
+        FrameLayout container = new FrameLayout(activity);
+        activity.setContentView(container);
+
+        mView = new WindowsXProgressBar(activity, Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.horizontal, String.valueOf(mIsHorizontal))
+                .build());
+        mView.setFrameClock(clock);
+        container.addView(mView, new ViewGroup.LayoutParams(width, height));
+        mView.layout(0, 0, width, height);
+
+        controller.start().resume().visible().windowFocusChanged(true);
+        mView.runAnimations();
+
+        mAnimatedDraws = mView.getAnimatedDraws();
+    }
+
+    @Override
+    public void drawFrame(Canvas canvas) {
+        for (int i = 0; i < mAnimatedDraws.size(); i++) {
+            mAnimatedDraws.get(i).onFrame(MID_ANIMATION);
+        }
+
+        mView.onDrawStatics(canvas);
+        for (int i = 0; i < mAnimatedDraws.size(); i++) {
+            mAnimatedDraws.get(i).onDraw(canvas);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.view.animation.Interpolator;
+
+/**
+ * Custom interpolator for dot animation.
+ * This interpolator implements two different functions according to time.
+ *
+ * <p>For t <= 0.5: y = -1 * cos((t * 2+1)π * 0.5)/2</p>
+ * <p>For t > 0.5: y = 0.5 + 0.5 - (-1 * cos((t * 2+1)π * 0.5)/2)</p>
+ *
+ * These functions allows the dots to accelerate and decelerate twice.
+ * Values are read from {@link LookupTables} instead of calling {@link Math#cos(double)}.
+ */
+class CustomInterpolator implements Interpolator {
+    @Override
+    public float getInterpolation(float t) {
+        return LookupTables.easing(t);
+    }
+}
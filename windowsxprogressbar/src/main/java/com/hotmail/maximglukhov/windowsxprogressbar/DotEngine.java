@@ -0,0 +1,99 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+/**
+ * Calculates all dot positions from a single clock.
+ *
+ * <p>Dot {@code i} runs {@code i} staggers behind the first dot, so its progress is derived from
+ * the shared elapsed time and its index. There are no per-dot animators, and a frame costs one
+ * tight loop over the dots.</p>
+ */
+final class DotEngine {
+
+    /**
+     * Amount of dots.
+     */
+    private int mDotCount;
+
+    /**
+     * Duration of a single dot's animation.
+     */
+    private long mDotDuration;
+
+    /**
+     * Delay between consecutive dots.
+     */
+    private float mStagger;
+
+    /**
+     * Time from the first dot starting to the last dot ending.
+     */
+    private long mPeriod;
+
+    /**
+     * Set dot count and timing.
+     * @param dotCount Amount of dots.
+     * @param dotDuration Duration of a single dot's animation.
+     */
+    void configure(int dotCount, long dotDuration) {
+        mDotCount = dotCount;
+        mDotDuration = dotDuration;
+
+        mStagger = dotCount > 0 ? dotDuration / (float) dotCount : 0.0f;
+        mPeriod = dotCount > 0 ? (long) ((dotCount - 1) * mStagger) + dotDuration : 0;
+    }
+
+    int getDotCount() {
+        return mDotCount;
+    }
+
+    /**
+     * @return Time from the first dot starting to the last dot ending.
+     */
+    long getPeriod() {
+        return mPeriod;
+    }
+
+    /**
+     * Write positions of all moving dots.
+     * @param elapsed Time elapsed within the period.
+     * @param trajectory Maps dot values to positions.
+     * @param out Array receiving x and y of every moving dot, at least 2 * dot count long.
+     * @return Amount of moving dots written to out.
+     */
+    int computePositions(long elapsed, DotTrajectory trajectory, float[] out) {
+        return computePositions(elapsed, trajectory, out, null);
+    }
+
+    /**
+     * Write positions of all moving dots, along with which dot each position belongs to.
+     * @param elapsed Time elapsed within the period.
+     * @param trajectory Maps dot values to positions.
+     * @param out Array receiving x and y of every moving dot, at least 2 * dot count long.
+     * @param outDotIndices Array receiving the index of every moving dot, or null.
+     * @return Amount of moving dots written to out.
+     */
+    int computePositions(long elapsed, DotTrajectory trajectory, float[] out,
+                         int[] outDotIndices) {
+        int count = 0;
+        float dotDuration = mDotDuration;
+
+        for (int i = 0; i < mDotCount; i++) {
+            float fraction = (elapsed - i * mStagger) / dotDuration;
+
+            if (fraction <= 0.0f) {
+                // Later dots start even later.
+                break;
+            }
+
+            if (fraction < 1.0f) {
+                trajectory.getPosition(LookupTables.easing(fraction), out, count * 2);
+                if (outDotIndices != null) {
+                    outDotIndices[count] = i;
+                }
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
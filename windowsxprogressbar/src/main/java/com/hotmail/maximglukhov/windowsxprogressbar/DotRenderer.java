@@ -0,0 +1,189 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+
+/**
+ * Draws indeterminate dots on a canvas of its own, away from any view.
+ *
+ * <p>Dots come from the same {@link DotEngine} and {@link DotTrajectory} as
+ * {@link WindowsXProgressBar}, on a looping {@link AnimationTimeline}. Nothing here is
+ * thread safe: the renderer belongs to whichever thread draws with it.
+ * Drawing doesn't allocate.</p>
+ */
+final class DotRenderer {
+
+    /**
+     * Sequences all dots on a single looping clock.
+     */
+    private final AnimationTimeline mTimeline = new AnimationTimeline();
+
+    /**
+     * Calculates all dot positions from {@link #mTimeline}.
+     */
+    private final DotEngine mDotEngine = new DotEngine();
+
+    /**
+     * Maps dot values to positions, calculated once per size change.
+     */
+    private final DotTrajectory mTrajectory = new DotTrajectory();
+
+    /**
+     * Round-capped stroke paint drawing all dots with a single {@link Canvas#drawPoints} call.
+     * Owned by this renderer, shared paints are only safe to use on the main thread.
+     */
+    private final Paint mDotPointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /**
+     * Positions of drawn dots. Reused every frame.
+     */
+    private float[] mDotPositions = new float[0];
+
+    /**
+     * Colour filling the canvas before the dots are drawn.
+     */
+    private int mBackgroundColor;
+
+    /**
+     * Offset of the available area within the canvas.
+     */
+    private int mLeft;
+    private int mTop;
+
+    /**
+     * Available size.
+     */
+    private int mWidth;
+    private int mHeight;
+
+    DotRenderer() {
+        mTimeline.setLooping(true);
+
+        mDotPointPaint.setStyle(Paint.Style.STROKE);
+        mDotPointPaint.setStrokeCap(Paint.Cap.ROUND);
+        mDotPointPaint.setStrokeJoin(Paint.Join.ROUND);
+    }
+
+    /**
+     * Apply a new look. Keeps the current phase as far as the new period allows.
+     * @param style Look of the dots.
+     */
+    void setStyle(Style style) {
+        mDotEngine.configure(style.dotCount, style.dotDuration);
+        mTimeline.setDuration(mDotEngine.getPeriod());
+
+        mTrajectory.setHorizontal(style.isHorizontal);
+        mTrajectory.setDotRadius(style.dotRadius);
+
+        mDotPointPaint.setColor(style.dotColor);
+        mDotPointPaint.setStrokeWidth(style.dotRadius * 2);
+        mBackgroundColor = style.backgroundColor;
+
+        if (mDotPositions.length < style.dotCount * 2) {
+            mDotPositions = new float[style.dotCount * 2];
+        }
+    }
+
+    /**
+     * Set the area dots move within.
+     * @param left Left offset within the canvas.
+     * @param top Top offset within the canvas.
+     * @param width Available width.
+     * @param height Available height.
+     */
+    void setSize(int left, int top, int width, int height) {
+        mLeft = left;
+        mTop = top;
+        mWidth = width;
+        mHeight = height;
+
+        mTrajectory.setSize(width, height);
+    }
+
+    /**
+     * Continue animating from the current phase.
+     * @param nowMillis Current clock time.
+     */
+    void resume(long nowMillis) {
+        if (!mTimeline.isRunning()) {
+            mTimeline.resume(nowMillis);
+        }
+    }
+
+    /**
+     * Stop animating, keeping the current phase.
+     * @param nowMillis Current clock time.
+     */
+    void pause(long nowMillis) {
+        mTimeline.pause(nowMillis);
+    }
+
+    /**
+     * @return True if dots move with the clock.
+     */
+    boolean isRunning() {
+        return mTimeline.isRunning();
+    }
+
+    /**
+     * @return Elapsed time within the current period.
+     */
+    long getElapsed() {
+        return mTimeline.getElapsed();
+    }
+
+    /**
+     * Advance the animation and draw a frame, filling the whole canvas.
+     * Paused renderers draw their current phase.
+     * @param canvas Canvas to draw on.
+     * @param frameTimeMillis Time the frame will be shown.
+     * @return Amount of dots drawn.
+     */
+    int draw(Canvas canvas, long frameTimeMillis) {
+        mTimeline.update(frameTimeMillis);
+
+        canvas.drawColor(mBackgroundColor);
+
+        if (mWidth <= 0 || mHeight <= 0) {
+            return 0;
+        }
+
+        int count = mDotEngine.computePositions(mTimeline.getElapsed(), mTrajectory,
+                mDotPositions);
+
+        if (count > 0) {
+            int saveCount = canvas.save();
+            canvas.translate(mLeft, mTop);
+            // Round caps turn every point into a dot.
+            canvas.drawPoints(mDotPositions, 0, count * 2, mDotPointPaint);
+            canvas.restoreToCount(saveCount);
+        }
+
+        return count;
+    }
+
+    /**
+     * Look of the dots. Immutable, so it can be handed from one thread to another.
+     */
+    static final class Style {
+
+        final int dotCount;
+        final long dotDuration;
+        final boolean isHorizontal;
+        final float dotRadius;
+        final int dotColor;
+        final int backgroundColor;
+
+        Style(int dotCount, long dotDuration, boolean isHorizontal, float dotRadius,
+              int dotColor, int backgroundColor) {
+            this.dotCount = dotCount;
+            this.dotDuration = dotDuration;
+            this.isHorizontal = isHorizontal;
+            this.dotRadius = dotRadius;
+            this.dotColor = dotColor;
+            this.backgroundColor = backgroundColor;
+        }
+    }
+}
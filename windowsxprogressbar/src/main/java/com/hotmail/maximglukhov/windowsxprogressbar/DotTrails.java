@@ -0,0 +1,137 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+/**
+ * Remembers the last positions of every dot to draw fading trails.
+ *
+ * <p>All dots share one preallocated ring buffer, each dot owning a fixed slice of it. A dot
+ * records its position once per frame; positions of the same age are then gathered for all
+ * dots at once, so each age is drawn with a single batched call. Frames begin when the dots
+ * move, not when they're drawn, so redrawing a frame draws the same trails.</p>
+ */
+final class DotTrails {
+
+    /**
+     * Amount of positions remembered per dot.
+     */
+    private int mLength;
+
+    /**
+     * Amount of dots.
+     */
+    private int mDotCount;
+
+    /**
+     * X and y of remembered positions, {@link #mLength} per dot.
+     */
+    private float[] mPositions = new float[0];
+
+    /**
+     * Slot of the latest position of every dot.
+     */
+    private int[] mHeads = new int[0];
+
+    /**
+     * Amount of remembered positions of every dot.
+     */
+    private int[] mCounts = new int[0];
+
+    /**
+     * Frame in which every dot last recorded a position.
+     */
+    private long[] mRecordFrames = new long[0];
+
+    /**
+     * Current frame number.
+     */
+    private long mFrame;
+
+    /**
+     * Set dot count and trail length, forgetting all positions.
+     * Buffers only grow, so reconfiguring to a smaller size never allocates.
+     * @param dotCount Amount of dots.
+     * @param length Amount of positions remembered per dot, 0 for no trails.
+     */
+    void configure(int dotCount, int length) {
+        mDotCount = dotCount;
+        mLength = length;
+
+        if (mHeads.length < dotCount) {
+            mHeads = new int[dotCount];
+            mCounts = new int[dotCount];
+            mRecordFrames = new long[dotCount];
+        }
+        if (mPositions.length < dotCount * length * 2) {
+            mPositions = new float[dotCount * length * 2];
+        }
+
+        for (int i = 0; i < dotCount; i++) {
+            mCounts[i] = 0;
+        }
+    }
+
+    /**
+     * @return Amount of positions remembered per dot.
+     */
+    int getLength() {
+        return mLength;
+    }
+
+    /**
+     * Start a new frame, once the dots moved. Positions recorded from now on are the dots
+     * themselves and only become trails with the next frame.
+     */
+    void beginFrame() {
+        mFrame++;
+    }
+
+    /**
+     * Record the current position of a dot. A dot that skipped a frame starts a new trail.
+     * @param dot Dot index.
+     * @param x Dot x.
+     * @param y Dot y.
+     */
+    void record(int dot, float x, float y) {
+        if (mLength == 0 || dot >= mDotCount || mRecordFrames[dot] == mFrame) {
+            return;
+        }
+
+        if (mRecordFrames[dot] != mFrame - 1) {
+            mCounts[dot] = 0;
+        }
+
+        int head = (mHeads[dot] + 1) % mLength;
+        int position = (dot * mLength + head) * 2;
+        mPositions[position] = x;
+        mPositions[position + 1] = y;
+
+        mHeads[dot] = head;
+        mCounts[dot] = Math.min(mCounts[dot] + 1, mLength);
+        mRecordFrames[dot] = mFrame;
+    }
+
+    /**
+     * Write positions of the given age for all dots that moved in the previous frame.
+     * Positions recorded in the current frame are skipped, whether or not they're recorded yet.
+     * @param age 0 for the latest recorded position, up to {@link #getLength()} - 1.
+     * @param out Array receiving x and y of every position, at least 2 * dot count long.
+     * @return Amount of positions written to out.
+     */
+    int gather(int age, float[] out) {
+        int count = 0;
+
+        for (int dot = 0; dot < mDotCount; dot++) {
+            int skipped = mRecordFrames[dot] == mFrame ? 1 : 0;
+            if (mRecordFrames[dot] < mFrame - 1 || mCounts[dot] <= age + skipped) {
+                continue;
+            }
+
+            int slot = (mHeads[dot] - age - skipped + mLength) % mLength;
+            int position = (dot * mLength + slot) * 2;
+            out[count * 2] = mPositions[position];
+            out[count * 2 + 1] = mPositions[position + 1];
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,102 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+/**
+ * Maps a dot's animated value to its position on screen.
+ * Calculated once per size change so positions never allocate.
+ */
+final class DotTrajectory {
+
+    /**
+     * Available width and height.
+     */
+    private int mWidth;
+    private int mHeight;
+
+    /**
+     * Center of the available bounds.
+     */
+    private float mCenterX;
+    private float mCenterY;
+
+    /**
+     * Radius of the circular orbit, keeping whole dots within bounds.
+     */
+    private float mOrbitRadius;
+
+    /**
+     * Radius of every dot.
+     */
+    private float mDotRadius;
+
+    /**
+     * Determines if dots move horizontally or around a circle.
+     */
+    private boolean mIsHorizontal = true;
+
+    /**
+     * Sampled path dots follow instead of the line or circle, or null.
+     */
+    private PathPositionTable mPathPositions;
+
+    /**
+     * Recalculate for the given available size.
+     * @param width Available width.
+     * @param height Available height.
+     */
+    void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+
+        mCenterX = width / 2.0f;
+        mCenterY = height / 2.0f;
+
+        updateOrbitRadius();
+    }
+
+    /**
+     * @param dotRadius Radius of every dot.
+     */
+    void setDotRadius(float dotRadius) {
+        mDotRadius = dotRadius;
+
+        updateOrbitRadius();
+    }
+
+    /**
+     * @param horizontal True to move dots horizontally, false to move them around a circle.
+     */
+    void setHorizontal(boolean horizontal) {
+        mIsHorizontal = horizontal;
+    }
+
+    /**
+     * @param pathPositions Sampled path to move dots along, null to move them horizontally
+     *                      or around a circle.
+     */
+    void setPathPositions(PathPositionTable pathPositions) {
+        mPathPositions = pathPositions;
+    }
+
+    /**
+     * Write the position of a dot.
+     * @param value Animated value of the dot, 0 to 1.
+     * @param out Array receiving x and y.
+     * @param offset Index of x within out.
+     */
+    void getPosition(float value, float[] out, int offset) {
+        if (mPathPositions != null && mPathPositions.isSampled()) {
+            mPathPositions.getPosition(value, out, offset);
+        } else if (mIsHorizontal) {
+            // Use radius offset to make sure the dot isn't cut in half when starting.
+            out[offset] = mDotRadius + mWidth * value;
+            out[offset + 1] = mHeight / 2;
+        } else {
+            out[offset] = mCenterX + mOrbitRadius * LookupTables.cosTurns(value);
+            out[offset + 1] = mCenterY + mOrbitRadius * LookupTables.sinTurns(value);
+        }
+    }
+
+    private void updateOrbitRadius() {
+        mOrbitRadius = Math.min(mWidth, mHeight) / 2.0f - mDotRadius;
+    }
+}
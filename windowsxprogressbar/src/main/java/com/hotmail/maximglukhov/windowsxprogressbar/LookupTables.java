@@ -0,0 +1,117 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+/**
+ * Precomputed float tables replacing per-frame trigonometry.
+ * Tables are built once and shared by all progress bars; lookups interpolate linearly
+ * between samples and never allocate.
+ */
+final class LookupTables {
+
+    /**
+     * Amount of unit circle samples over a full turn.
+     */
+    static final int CIRCLE_TABLE_SIZE = 1024;
+
+    /**
+     * Amount of easing curve samples over [0, 1].
+     */
+    static final int EASING_TABLE_SIZE = 512;
+
+    /**
+     * sin(2π * i / {@link #CIRCLE_TABLE_SIZE}), with one extra sample closing the turn.
+     */
+    private static final float[] SIN_TABLE = new float[CIRCLE_TABLE_SIZE + 1];
+
+    /**
+     * {@link #easingExact(float)} sampled over [0, 1], with one extra sample for the end.
+     */
+    private static final float[] EASING_TABLE = new float[EASING_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= CIRCLE_TABLE_SIZE; i++) {
+            SIN_TABLE[i] = (float) Math.sin(2.0 * Math.PI * i / CIRCLE_TABLE_SIZE);
+        }
+
+        for (int i = 0; i <= EASING_TABLE_SIZE; i++) {
+            EASING_TABLE[i] = easingExact(i / (float) EASING_TABLE_SIZE);
+        }
+    }
+
+    private LookupTables() {
+    }
+
+    /**
+     * @param turns Angle in turns (1 turn is 2π).
+     * @return Approximated sine of the angle.
+     */
+    static float sinTurns(float turns) {
+        // Keep only the fraction of a turn, avoiding Math.floor.
+        float fraction = turns - (int) turns;
+        if (fraction < 0.0f) {
+            fraction += 1.0f;
+        }
+
+        return lookup(SIN_TABLE, CIRCLE_TABLE_SIZE, fraction);
+    }
+
+    /**
+     * @param turns Angle in turns (1 turn is 2π).
+     * @return Approximated cosine of the angle.
+     */
+    static float cosTurns(float turns) {
+        return sinTurns(turns + 0.25f);
+    }
+
+    /**
+     * @param t Time fraction, clamped to [0, 1].
+     * @return Approximated {@link #easingExact(float)}.
+     */
+    static float easing(float t) {
+        if (t <= 0.0f) {
+            return EASING_TABLE[0];
+        }
+        if (t >= 1.0f) {
+            return EASING_TABLE[EASING_TABLE_SIZE];
+        }
+
+        return lookup(EASING_TABLE, EASING_TABLE_SIZE, t);
+    }
+
+    /**
+     * Exact dot easing curve, accelerating and decelerating twice.
+     *
+     * <p>For t <= 0.5: y = -1 * cos((t * 2+1)π * 0.5)/2</p>
+     * <p>For t > 0.5: y = 0.5 + 0.5 - (-1 * cos((t * 2+1)π * 0.5)/2)</p>
+     *
+     * @param t Time fraction.
+     * @return Eased value.
+     */
+    static float easingExact(float t) {
+        float func = (float) (-1.0 * Math.cos((t * 2 + 1) * Math.PI * 0.5) / 2);
+
+        if (t > 0.5f) {
+            func = 0.5f + 0.5f - func;
+        }
+
+        return func;
+    }
+
+    /**
+     * Linearly interpolate a table sampled over [0, 1].
+     * @param table Table with size + 1 samples.
+     * @param size Amount of intervals in the table.
+     * @param x Position within [0, 1).
+     * @return Interpolated value.
+     */
+    private static float lookup(float[] table, int size, float x) {
+        float position = x * size;
+        int index = (int) position;
+        if (index >= size) {
+            index = size - 1;
+        }
+
+        float fraction = position - index;
+
+        return table[index] + fraction * (table[index + 1] - table[index]);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+
+/**
+ * Positions along an arbitrary path, sampled at equal distances.
+ *
+ * <p>The path is measured once per size into a flat table of x and y pairs. Looking up a position
+ * interpolates between two neighbouring samples, so it costs the same whatever the path's
+ * complexity.</p>
+ */
+final class PathPositionTable {
+
+    /**
+     * Amount of samples along the path, the last one being the path's end.
+     */
+    static final int SAMPLE_COUNT = 256;
+
+    /**
+     * X and y of every sample.
+     */
+    private final float[] mPositions = new float[SAMPLE_COUNT * 2];
+
+    /**
+     * Determines if {@link #mPositions} holds a sampled path.
+     */
+    private boolean mIsSampled;
+
+    /**
+     * Path fitted into the available bounds. Reused between samplings.
+     */
+    private final Path mFittedPath = new Path();
+    private final PathMeasure mPathMeasure = new PathMeasure();
+    private final Matrix mMatrix = new Matrix();
+    private final RectF mPathBounds = new RectF();
+    private final RectF mAvailableBounds = new RectF();
+    private final float[] mSamplePosition = new float[2];
+
+    /**
+     * Sample a path, scaled to fit the available bounds while keeping its aspect ratio.
+     * @param path Path to sample, in any coordinates.
+     * @param width Available width.
+     * @param height Available height.
+     * @param inset Distance to keep from the available bounds, usually the dot radius.
+     */
+    void sample(Path path, int width, int height, float inset) {
+        mIsSampled = false;
+
+        path.computeBounds(mPathBounds, true);
+        mAvailableBounds.set(inset, inset, width - inset, height - inset);
+        if (mAvailableBounds.width() <= 0 || mAvailableBounds.height() <= 0) {
+            return;
+        }
+
+        mMatrix.setRectToRect(mPathBounds, mAvailableBounds, Matrix.ScaleToFit.CENTER);
+        path.transform(mMatrix, mFittedPath);
+
+        // Measure all contours, so samples are spread by distance over the whole path.
+        float totalLength = 0.0f;
+        mPathMeasure.setPath(mFittedPath, false);
+        do {
+            totalLength += mPathMeasure.getLength();
+        } while (mPathMeasure.nextContour());
+
+        if (totalLength <= 0.0f) {
+            return;
+        }
+
+        float step = totalLength / (SAMPLE_COUNT - 1);
+        float contourStart = 0.0f;
+        int sample = 0;
+
+        mPathMeasure.setPath(mFittedPath, false);
+        do {
+            float contourLength = mPathMeasure.getLength();
+
+            while (sample < SAMPLE_COUNT) {
+                float distance = sample * step - contourStart;
+                if (distance > contourLength && sample < SAMPLE_COUNT - 1) {
+                    // Sample belongs to a later contour.
+                    break;
+                }
+
+                mPathMeasure.getPosTan(Math.min(distance, contourLength), mSamplePosition, null);
+                mPositions[sample * 2] = mSamplePosition[0];
+                mPositions[sample * 2 + 1] = mSamplePosition[1];
+                sample++;
+            }
+
+            contourStart += contourLength;
+        } while (sample < SAMPLE_COUNT && mPathMeasure.nextContour());
+
+        mIsSampled = sample == SAMPLE_COUNT;
+    }
+
+    /**
+     * @return True if a path was sampled and positions can be looked up.
+     */
+    boolean isSampled() {
+        return mIsSampled;
+    }
+
+    /**
+     * Write the position at a fraction of the path's length.
+     * @param value Fraction of the path's length, 0 to 1.
+     * @param out Array receiving x and y.
+     * @param offset Index of x within out.
+     */
+    void getPosition(float value, float[] out, int offset) {
+        float index = Math.max(0.0f, Math.min(value, 1.0f)) * (SAMPLE_COUNT - 1);
+        int i = (int) index;
+        if (i >= SAMPLE_COUNT - 1) {
+            i = SAMPLE_COUNT - 2;
+        }
+        float fraction = index - i;
+
+        int position = i * 2;
+        out[offset] = mPositions[position]
+                + (mPositions[position + 2] - mPositions[position]) * fraction;
+        out[offset + 1] = mPositions[position + 1]
+                + (mPositions[position + 3] - mPositions[position + 1]) * fraction;
+    }
+}
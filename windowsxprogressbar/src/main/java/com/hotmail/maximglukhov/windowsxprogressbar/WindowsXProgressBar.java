@@ -7,17 +7,30 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PointF;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
+import android.view.Display;
+import android.view.View;
 import android.view.WindowManager;
-import android.view.animation.Interpolator;
-
+import android.view.animation.LinearInterpolator;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationScheduler;
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+import com.hotmail.maximglukhov.animatedviewcore.FrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.FrameMetrics;
+import com.hotmail.maximglukhov.animatedviewcore.FrameRateGovernor;
+import com.hotmail.maximglukhov.animatedviewcore.StyleCache;
 import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
 import com.hotmail.maximglukhov.animatedviewlib.AnimatedView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by maxim on 11-Mar-17.
@@ -25,6 +38,23 @@ import java.util.List;
 
 public class WindowsXProgressBar extends AnimatedView {
 
+    /**
+     * Engine with an animated draw for every dot, each following its own timeline stage.
+     * Dots are still drawn together with a single operation.
+     */
+    public static final int ENGINE_PER_DOT = 0;
+
+    /**
+     * Engine calculating all dots from a single clock in one loop.
+     * Per-frame cost stays flat with hundreds of dots.
+     */
+    public static final int ENGINE_SINGLE_CLOCK = 1;
+
+    /**
+     * Defines the default dot engine.
+     */
+    private static final int DEFAULT_ENGINE = ENGINE_PER_DOT;
+
     /**
      * Defines the default amount of dots for the progress bar.
      */
@@ -36,15 +66,45 @@ public class WindowsXProgressBar extends AnimatedView {
     private static final boolean DEFAULT_IS_INDETERMINATE = true;
 
     /**
-     * Dot animation duration.
+     * Default dot animation duration.
+     */
+    private static final int DEFAULT_DOT_ANIMATION_DURATION = 1500;
+
+    /**
+     * Default dot colour.
+     */
+    private static final int DEFAULT_DOT_COLOR = Color.BLUE;
+
+    /**
+     * Default dot radius in dp.
      */
-    private static final int DOT_ANIMATION_DURATION = 1500;
+    private static final float DEFAULT_DOT_RADIUS_DP = 2.5f;
 
     /**
      * Defines if the animation is horizontal or circular.
      */
     private static final boolean DEFAULT_IS_HORIZONTAL = true;
 
+    /**
+     * Default amount of trailing positions drawn behind every dot, 0 for no trails.
+     */
+    private static final int DEFAULT_TRAIL_LENGTH = 0;
+
+    /**
+     * Determines if render thread animation is enabled by default.
+     */
+    private static final boolean DEFAULT_IS_RENDER_THREAD_ANIMATION_ENABLED = false;
+
+    /**
+     * Refresh rate assumed until attached to a display, in frames per second.
+     */
+    private static final float DEFAULT_REFRESH_RATE = 60.0f;
+
+    /**
+     * Time constant of the determinate progress easing, in milliseconds.
+     */
+    private static final float PROGRESS_EASING_TIME_CONSTANT = 80.0f;
+
     /**
      * Determines if the animation is indeterminate.
      */
@@ -66,9 +126,40 @@ public class WindowsXProgressBar extends AnimatedView {
      */
     private float mNextDotTimeFraction;
     /**
-     * Paint for every dot.
+     * Round-capped stroke paint drawing all dots with a single {@link Canvas#drawPoints} call.
      */
-    private Paint mDotPaint;
+    private Paint mDotPointPaint;
+
+    /**
+     * Amount of draw operations issued for dots in the last frame.
+     */
+    private int mLastFrameDrawOpCount;
+    /**
+     * Amount of dots written to {@link #mDotPositions} by {@link ProgressDotAnimatedDraw}s
+     * this frame, drawn together by {@link #mTimelineAnimatedDraw}.
+     */
+    private int mBatchedDotCount;
+
+    /**
+     * Amount of trailing positions drawn behind every dot, 0 for no trails.
+     */
+    private int mTrailLength;
+    /**
+     * Last positions of every dot.
+     */
+    private final DotTrails mDotTrails = new DotTrails();
+    /**
+     * Positions of one trail age for all dots. Reused every frame.
+     */
+    private float[] mTrailPositions = new float[0];
+    /**
+     * Dot index of every position computed by {@link #mDotEngine}. Reused every frame.
+     */
+    private int[] mDotIndices = new int[0];
+    /**
+     * Point paints for every trail age, fading out with age.
+     */
+    private Paint[] mTrailPaints = new Paint[0];
 
     /**
      * Available view height.
@@ -79,13 +170,48 @@ public class WindowsXProgressBar extends AnimatedView {
      */
     private int mWidth;
     /**
-     * Center of the view.
+     * Maps dot values to positions, calculated once per size change.
+     */
+    private final DotTrajectory mTrajectory = new DotTrajectory();
+    /**
+     * Path dots follow instead of the line or circle, or null. Owned copy of the app's path.
+     */
+    private Path mOrbitPath;
+    /**
+     * {@link #mOrbitPath} sampled for the current size.
+     */
+    private PathPositionTable mOrbitPathPositions;
+    /**
+     * Defines the dot engine, {@link #ENGINE_PER_DOT} or {@link #ENGINE_SINGLE_CLOCK}.
+     */
+    private int mEngine;
+    /**
+     * Calculates all dot positions when using {@link #ENGINE_SINGLE_CLOCK}.
+     */
+    private final DotEngine mDotEngine = new DotEngine();
+    /**
+     * Positions of drawn dots for batched drawing. Reused every frame.
+     */
+    private float[] mDotPositions = new float[0];
+
+    /**
+     * Latest determinate progress as {@link Float#floatToIntBits(float)}.
+     * Written from any thread, read when drawing.
+     */
+    private final AtomicInteger mTargetProgressBits = new AtomicInteger(Float.floatToIntBits(0.0f));
+    /**
+     * Determines if a redraw is already scheduled for the next frame.
+     * Coalesces any amount of progress updates into a single redraw per vsync.
+     */
+    private final AtomicBoolean mIsProgressRedrawScheduled = new AtomicBoolean();
+    /**
+     * Determinate progress currently drawn, easing towards the target. Main thread only.
      */
-    private PointF mCenter;
+    private float mDisplayedProgress;
     /**
-     * Radius from the center of the view.
+     * Clock time of the last determinate frame.
      */
-    private float mRadius;
+    private long mLastProgressFrameTime;
 
     /**
      * Device's screen density. Important for consistent sizing on different displays.
@@ -93,16 +219,148 @@ public class WindowsXProgressBar extends AnimatedView {
     private float mScreenDensity;
 
     /**
-     * {@link ArrayList} of {@link ProgressDotAnimatedDraw} objects.
-     * Each {@link ProgressDotAnimatedDraw} invokes the next one in the list when the required amount of time passes.
+     * Pool of {@link ProgressDotAnimatedDraw} objects, indexed by dot.
+     * Only the first {@link #mAttachedDotAnimatedDrawCount} are added to the view.
+     */
+    private final List<ProgressDotAnimatedDraw> mProgressDotAnimatedDraws = new ArrayList<>();
+    /**
+     * Amount of pooled dot draws currently added to the view.
+     */
+    private int mAttachedDotAnimatedDrawCount;
+    /**
+     * Interpolator shared by all dot stages.
+     */
+    private final CustomInterpolator mDotInterpolator = new CustomInterpolator();
+
+    /**
+     * Determines if the view is currently drawing. Dot count changes are deferred until after.
+     */
+    private boolean mIsDrawing;
+    /**
+     * Dot count waiting to be applied after the current frame, or -1 if none.
+     */
+    private int mPendingDotCount = -1;
+    /**
+     * Applies {@link #mPendingDotCount}. Allocated once so deferring stays allocation free.
+     */
+    private final Runnable mApplyPendingDotCountRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int dotCount = mPendingDotCount;
+            mPendingDotCount = -1;
+
+            if (dotCount >= 0) {
+                setDotCount(dotCount);
+            }
+        }
+    };
+
+    /**
+     * Sequences all dots on a single looping clock.
+     * Every dot is a stage starting {@link #mNextDotTimeFraction} of a dot animation after the previous one.
+     */
+    private final AnimationTimeline mTimeline = new AnimationTimeline();
+
+    /**
+     * Clock driving {@link #mTimeline}. While it's the shared {@link AnimationScheduler},
+     * frames come from the scheduler instead of {@link #mTimelineAnimatedDraw}.
+     */
+    private FrameClock mFrameClock = AnimationScheduler.getInstance();
+
+    /**
+     * Requests frames while {@link #mTimeline} runs, unless frames come from the scheduler.
+     */
+    private TimelineAnimatedDraw mTimelineAnimatedDraw;
+
+    /**
+     * Advances {@link #mTimeline} from the shared scheduler while registered.
+     */
+    private final AnimationScheduler.Client mSchedulerClient = new AnimationScheduler.Client() {
+        @Override
+        public boolean onAnimationFrame(long frameTimeMillis) {
+            if (!mFrameRateGovernor.shouldDrawFrame(frameTimeMillis)) {
+                // Skipped, the next drawn frame catches up with the clock.
+                return true;
+            }
+
+            boolean isRunning = advanceTimeline(frameTimeMillis);
+            invalidate();
+
+            return isRunning;
+        }
+    };
+
+    /**
+     * Limits the frame rate of scheduler frames, see {@link #setFrameRatePolicy(int)}.
+     */
+    private final FrameRateGovernor mFrameRateGovernor = new FrameRateGovernor();
+
+    /**
+     * Frame metrics, or null while disabled.
+     */
+    private FrameMetrics mFrameMetrics;
+
+    /**
+     * Visible part of the view, reused by {@link #isOnScreen()}.
+     */
+    private final Rect mVisibleRect = new Rect();
+
+    /**
+     * Determines if dots may be animated by the platform, see {@link #setRenderThreadAnimationEnabled(boolean)}.
+     */
+    private boolean mIsRenderThreadAnimationEnabled;
+    /**
+     * Platform animated dots, drawn instead of animated draws while render thread animation is active.
+     */
+    private Drawable mDotsDrawable;
+
+    /**
+     * Determines if animations were requested with {@link #runAnimations()}.
+     * They only actually run while the view can be seen, see {@link #canAnimate()}.
+     */
+    private boolean mIsAnimationRequested;
+    /**
+     * Determines if {@link #mTimeline} is currently running and requesting frames.
+     */
+    private boolean mIsAnimating;
+    /**
+     * Determines if this view is attached to a window.
+     */
+    private boolean mIsAttached;
+    /**
+     * Determines if {@link #init} completed. The superclass constructor can report visibility
+     * changes before field initializers ran, such as for android:visibility before API 24.
+     */
+    private boolean mIsInitialized;
+    /**
+     * Clock time requested animations were paused at because the view could not be seen,
+     * or -1 when not paused.
+     */
+    private long mAutoPauseTime = -1;
+    /**
+     * Milliseconds requested animations spent paused because the view could not be seen.
+     */
+    private long mAutoPausedMillis;
+    /**
+     * Refresh rate of the display this view is attached to, in frames per second.
      */
-    private List<ProgressDotAnimatedDraw> mProgressDotAnimatedDraws = new ArrayList<>();
+    private float mRefreshRate = DEFAULT_REFRESH_RATE;
 
     /**
      * Defines the radius for every dot.
      */
     private float mDotRadius;
 
+    /**
+     * Defines the colour of every dot.
+     */
+    private int mDotColor;
+
+    /**
+     * Duration of a single dot's animation.
+     */
+    private int mDotAnimationDuration;
+
     public WindowsXProgressBar(Context context) {
         this(context, null, 0);
     }
@@ -125,25 +383,334 @@ public class WindowsXProgressBar extends AnimatedView {
     }
 
     /**
-     * Starts animations.
+     * Starts animations, continuing from where they were stopped.
+     * Animations only run while the view is attached, measured, visible and its window
+     * has focus; otherwise they pause and resume at the same phase.
      */
     public void runAnimations() {
-        if (mProgressDotAnimatedDraws.size() > 0) {
-            // Restart just the first one since it's going to invoke the next ones.
-            mProgressDotAnimatedDraws.get(0).startAnimation();
+        if (mTimeline.isFinished()) {
+            // Determinate run completed, start over.
+            mTimeline.seek(0);
         }
+
+        mIsAnimationRequested = true;
+        updateAnimationState();
     }
 
     /**
-     * Stops all animations.
+     * Stops all animations. Dots keep their phase until {@link #runAnimations()} is called again.
      */
     public void stopAnimations() {
-        // Stop all dot animations.
-        for (AnimatedDraw animatedDraw: mProgressDotAnimatedDraws) {
-            animatedDraw.stopAnimation();
+        mIsAnimationRequested = false;
+        updateAnimationState();
+
+        invalidate();
+    }
+
+    /**
+     * Amount of frames not drawn because running animations were paused while the view
+     * could not be seen. Estimated from the display refresh rate.
+     * @return Saved frame count.
+     */
+    public long getFramesSaved() {
+        long pausedMillis = mAutoPausedMillis;
+        if (mAutoPauseTime >= 0) {
+            pausedMillis += mFrameClock.uptimeMillis() - mAutoPauseTime;
+        }
+
+        return (long) (pausedMillis * mRefreshRate / 1000.0f);
+    }
+
+    /**
+     * Set determinate progress. Safe to call from any thread and as often as needed:
+     * updates are merged into at most one redraw per frame, and dots ease towards the
+     * latest value.
+     * @param progress Progress, 0 to 1.
+     */
+    public void setProgress(float progress) {
+        progress = Math.max(0.0f, Math.min(1.0f, progress));
+
+        mTargetProgressBits.set(Float.floatToIntBits(progress));
+        scheduleProgressRedraw();
+    }
+
+    /**
+     * @return Latest determinate progress set with {@link #setProgress(float)}.
+     */
+    public float getProgress() {
+        return Float.intBitsToFloat(mTargetProgressBits.get());
+    }
+
+    /**
+     * Switch between looping and determinate progress.
+     * @param indeterminate True to loop, false to show progress set with {@link #setProgress(float)}.
+     */
+    public void setIndeterminate(boolean indeterminate) {
+        if (mIsIndeterminate != indeterminate) {
+            stopAnimations();
+
+            mIsIndeterminate = indeterminate;
+            mTimeline.setLooping(indeterminate);
+            updateDotsDrawable();
+
+            if (indeterminate) {
+                runAnimations();
+            }
+
+            invalidate();
         }
     }
 
+    /**
+     * @return False if progress is shown with {@link #setProgress(float)} rather than looping.
+     */
+    public boolean isIndeterminate() {
+        return mIsIndeterminate;
+    }
+
+    /**
+     * Set the dot engine. A running animation keeps its phase.
+     * @param engine {@link #ENGINE_PER_DOT} or {@link #ENGINE_SINGLE_CLOCK}.
+     */
+    public void setEngine(int engine) {
+        if (engine != ENGINE_PER_DOT && engine != ENGINE_SINGLE_CLOCK) {
+            throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+
+        if (mEngine != engine) {
+            pauseAnimating();
+
+            mEngine = engine;
+            initAnimatedDraws();
+
+            updateAnimationState();
+            invalidate();
+        }
+    }
+
+    /**
+     * @return Current dot engine.
+     */
+    public int getEngine() {
+        return mEngine;
+    }
+
+    /**
+     * Set the amount of dots. Only the difference is added or removed and a running
+     * animation keeps its phase. Safe to call during a frame, the change then applies
+     * right after it.
+     * @param dotCount Amount of dots, 0 or more.
+     */
+    public void setDotCount(int dotCount) {
+        if (dotCount < 0) {
+            throw new IllegalArgumentException("Dot count must not be negative: " + dotCount);
+        }
+
+        if (mIsDrawing) {
+            // Dot draws are being iterated, apply once the frame is done.
+            if (mPendingDotCount < 0) {
+                post(mApplyPendingDotCountRunnable);
+            }
+            mPendingDotCount = dotCount;
+            return;
+        }
+
+        // A newer count replaces any deferred one.
+        mPendingDotCount = -1;
+
+        if (mDotCount == dotCount) {
+            return;
+        }
+
+        pauseAnimating();
+        long elapsed = mTimeline.getElapsed();
+
+        mDotCount = dotCount;
+        updateDots();
+
+        // Continue from the same phase of the new period.
+        long duration = mTimeline.getDuration();
+        mTimeline.seek(mTimeline.isLooping() && duration > 0 ? elapsed % duration : elapsed);
+
+        updateDotsDrawable();
+
+        updateAnimationState();
+        invalidate();
+    }
+
+    /**
+     * @return Amount of dots.
+     */
+    public int getDotCount() {
+        return mDotCount;
+    }
+
+    /**
+     * Draw a fading trail of previous positions behind every moving dot.
+     * Trails cost one draw operation per trailing position whatever the dot count.
+     * @param trailLength Amount of trailing positions, 0 for no trails.
+     */
+    public void setTrailLength(int trailLength) {
+        if (trailLength < 0) {
+            throw new IllegalArgumentException("Trail length must not be negative: "
+                    + trailLength);
+        }
+
+        if (mTrailLength != trailLength) {
+            mTrailLength = trailLength;
+
+            mDotTrails.configure(mDotCount, mTrailLength);
+            initPaints();
+            invalidate();
+        }
+    }
+
+    /**
+     * @return Amount of trailing positions drawn behind every dot.
+     */
+    public int getTrailLength() {
+        return mTrailLength;
+    }
+
+    /**
+     * Move dots along a path, for example a rounded rectangle around a card or a logo outline.
+     * The path is scaled to fit the view keeping its aspect ratio and sampled once per size,
+     * so frames cost the same whatever the path's complexity.
+     * @param path Path to follow, copied. Null to go back to the horizontal line or circle.
+     */
+    public void setOrbitPath(Path path) {
+        if (path == null) {
+            mOrbitPath = null;
+            mTrajectory.setPathPositions(null);
+        } else {
+            if (mOrbitPath == null) {
+                mOrbitPath = new Path();
+                mOrbitPathPositions = new PathPositionTable();
+            }
+            mOrbitPath.set(path);
+
+            sampleOrbitPath();
+            mTrajectory.setPathPositions(mOrbitPathPositions);
+        }
+
+        updateDotsDrawable();
+        invalidate();
+    }
+
+    /**
+     * Let the platform animate the dots with an animated vector drawable. From API 25 it runs on
+     * the render thread and keeps moving while the main thread is blocked.
+     * Only applies on API 21+ to circular indeterminate bars without an orbit path, with the
+     * default dot count and duration; the dot size follows the bar size at default proportions.
+     * Other configurations keep animating with the dot engine.
+     * @param enabled True to use platform animation when possible.
+     */
+    public void setRenderThreadAnimationEnabled(boolean enabled) {
+        if (mIsRenderThreadAnimationEnabled != enabled) {
+            mIsRenderThreadAnimationEnabled = enabled;
+
+            updateDotsDrawable();
+        }
+    }
+
+    /**
+     * @return True if platform animation was enabled with {@link #setRenderThreadAnimationEnabled(boolean)}.
+     */
+    public boolean isRenderThreadAnimationEnabled() {
+        return mIsRenderThreadAnimationEnabled;
+    }
+
+    /**
+     * @return True if dots are currently animated by the platform rather than the dot engine.
+     */
+    public boolean isRenderThreadAnimationActive() {
+        return mDotsDrawable != null;
+    }
+
+    /**
+     * Amount of canvas draw operations issued for dots in the last frame.
+     * Both engines draw all dots with one operation whatever the dot count,
+     * platform animated dots are drawn with one operation as well.
+     * @return Draw operation count.
+     */
+    public int getLastFrameDrawOpCount() {
+        return mLastFrameDrawOpCount;
+    }
+
+    /**
+     * Set the clock driving the animation. Mainly useful to drive frames from a simulated clock.
+     * Any clock but the shared {@link AnimationScheduler} makes this view request its own frames.
+     * @param frameClock Clock to use, {@link AnimationScheduler#getInstance()} by default.
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        boolean isRequestingFrames = mIsAnimating && mDotsDrawable == null;
+        if (isRequestingFrames) {
+            stopFrames();
+        }
+
+        mFrameClock = frameClock;
+
+        if (isRequestingFrames) {
+            startFrames();
+        }
+    }
+
+    /**
+     * Enable or disable recording of frame metrics. Disabled by default, costing nothing.
+     * Disabling drops everything recorded so far. Milestones are dot starts and ends, so
+     * {@link #ENGINE_SINGLE_CLOCK}, which has no stages, records none.
+     * @param enabled True to record frame metrics.
+     */
+    public void setFrameMetricsEnabled(boolean enabled) {
+        if (enabled == (mFrameMetrics != null)) {
+            return;
+        }
+
+        mFrameMetrics = enabled ? new FrameMetrics() : null;
+    }
+
+    /**
+     * @return Frame metrics recorded since enabled, or null if disabled.
+     * @see #setFrameMetricsEnabled(boolean)
+     */
+    public FrameMetrics getFrameMetrics() {
+        return mFrameMetrics;
+    }
+
+    /**
+     * Set how many frames are drawn while animating. Animations keep following the clock,
+     * lower frame rates only draw fewer of their frames. Applies to frames from the shared
+     * {@link AnimationScheduler}, views on other clocks draw every frame.
+     * @param policy {@link FrameRateGovernor#POLICY_FULL} (default),
+     *               {@link FrameRateGovernor#POLICY_CAPPED} or {@link FrameRateGovernor#POLICY_ADAPTIVE}.
+     */
+    public void setFrameRatePolicy(int policy) {
+        mFrameRateGovernor.setPolicy(policy);
+    }
+
+    /**
+     * @return Current frame rate policy.
+     * @see #setFrameRatePolicy(int)
+     */
+    public int getFrameRatePolicy() {
+        return mFrameRateGovernor.getPolicy();
+    }
+
+    /**
+     * @param framesPerSecond Frame rate of {@link FrameRateGovernor#POLICY_CAPPED},
+     *                        {@link FrameRateGovernor#DEFAULT_CAPPED_FRAME_RATE} by default.
+     */
+    public void setCappedFrameRate(int framesPerSecond) {
+        mFrameRateGovernor.setCappedFrameRate(framesPerSecond);
+    }
+
+    /**
+     * @return Frame rate of {@link FrameRateGovernor#POLICY_CAPPED}.
+     */
+    public int getCappedFrameRate() {
+        return mFrameRateGovernor.getCappedFrameRate();
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
@@ -152,14 +719,360 @@ public class WindowsXProgressBar extends AnimatedView {
         mWidth = w - (getPaddingLeft() + getPaddingRight());
         mHeight = h - (getPaddingBottom() + getPaddingTop());
 
-        mCenter = new PointF(mWidth/2, mHeight/2);
+        mTrajectory.setSize(mWidth, mHeight);
+        mFrameRateGovernor.setSize(w, h, mScreenDensity);
+        sampleOrbitPath();
+        updateDotsDrawableBounds();
 
-        mRadius = Math.min(mWidth, mHeight) / 2.0f;
+        updateAnimationState();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        mIsAttached = true;
+        mRefreshRate = getDisplayRefreshRate();
+        mFrameRateGovernor.attach(getContext());
+
+        updateAnimationState();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mIsAttached = false;
+        updateAnimationState();
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+
+        updateAnimationState();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+
+        updateAnimationState();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+
+        updateAnimationState();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        FrameMetrics frameMetrics = mFrameMetrics;
+        long startNanos = frameMetrics != null ? System.nanoTime() : 0;
+
+        mIsDrawing = true;
+        try {
+            super.draw(canvas);
+        } finally {
+            mIsDrawing = false;
+        }
+
+        if (frameMetrics != null) {
+            frameMetrics.recordDraw(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return who == mDotsDrawable || super.verifyDrawable(who);
     }
 
     @Override
     protected void onDrawStatics(Canvas canvas) {
+        // Statics come first, every draw issuing dots counts itself from here on.
+        mLastFrameDrawOpCount = 0;
+
+        if (mDotsDrawable != null) {
+            // Platform animates the dots, only its current state is drawn here.
+            mDotsDrawable.draw(canvas);
+            mLastFrameDrawOpCount++;
+        }
+
         // Draw non-animating here.
+        if (!mIsIndeterminate) {
+            drawDeterminateProgress(canvas);
+        } else if (mTrailLength > 0 && mDotsDrawable == null) {
+            // Under the dots, which record their positions afterwards.
+            drawTrails(canvas);
+        }
+    }
+
+    /**
+     * Determines if the view can be seen, so animations are worth running.
+     * @return True if attached, measured, shown and the window has focus.
+     */
+    private boolean canAnimate() {
+        return mIsAttached && mWidth > 0 && mHeight > 0 && isShown()
+                && getWindowVisibility() == VISIBLE && hasWindowFocus();
+    }
+
+    /**
+     * Run or pause {@link #mTimeline} depending on whether animations are requested and
+     * the view can be seen. Pausing keeps the phase, so animations resume where they left off.
+     */
+    private void updateAnimationState() {
+        if (!mIsInitialized) {
+            // Fields aren't initialized yet, init() brings the state in line.
+            return;
+        }
+
+        boolean canAnimate = canAnimate();
+        boolean shouldAnimate = mIsAnimationRequested && mDotCount > 0 && canAnimate;
+        long now = mFrameClock.uptimeMillis();
+
+        if (shouldAnimate && !mIsAnimating) {
+            if (mDotsDrawable != null) {
+                ((Animatable) mDotsDrawable).start();
+            } else {
+                mTimeline.resume(now);
+                startFrames();
+            }
+            mIsAnimating = true;
+        } else if (!shouldAnimate && mIsAnimating) {
+            pauseAnimating();
+        }
+
+        // Account time spent paused only while animations would otherwise run.
+        boolean isAutoPaused = mIsAnimationRequested && mDotCount > 0 && !canAnimate;
+        if (isAutoPaused && mAutoPauseTime < 0) {
+            mAutoPauseTime = now;
+        } else if (!isAutoPaused && mAutoPauseTime >= 0) {
+            mAutoPausedMillis += now - mAutoPauseTime;
+            mAutoPauseTime = -1;
+        }
+    }
+
+    /**
+     * Pause {@link #mTimeline} at its current phase and stop requesting frames.
+     * Platform animated dots have no phase to keep and simply stop.
+     */
+    private void pauseAnimating() {
+        if (mIsAnimating) {
+            if (mDotsDrawable != null) {
+                ((Animatable) mDotsDrawable).stop();
+            } else {
+                mTimeline.pause(mFrameClock.uptimeMillis());
+                stopFrames();
+            }
+            mIsAnimating = false;
+        }
+    }
+
+    /**
+     * @return True if frames come from the shared {@link AnimationScheduler}.
+     */
+    private boolean isScheduled() {
+        return mFrameClock == AnimationScheduler.getInstance();
+    }
+
+    /**
+     * Start receiving frames for {@link #mTimeline}.
+     */
+    private void startFrames() {
+        if (isScheduled()) {
+            mFrameRateGovernor.reset();
+            AnimationScheduler.getInstance().register(mSchedulerClient);
+        } else {
+            mTimelineAnimatedDraw.startAnimation();
+        }
+    }
+
+    /**
+     * Stop receiving frames for {@link #mTimeline}.
+     */
+    private void stopFrames() {
+        AnimationScheduler.getInstance().unregister(mSchedulerClient);
+        mTimelineAnimatedDraw.stopAnimation();
+    }
+
+    /**
+     * @return True if any part of the view is on screen. Unlike {@link #isShown()}, false
+     * while scrolled out of its viewport as well.
+     */
+    private boolean isOnScreen() {
+        return isShown() && getGlobalVisibleRect(mVisibleRect);
+    }
+
+    /**
+     * Advance {@link #mTimeline} for a frame and record frame metrics.
+     * @param now Frame time.
+     * @return True if the timeline still runs.
+     */
+    private boolean advanceTimeline(long now) {
+        FrameMetrics frameMetrics = mFrameMetrics;
+        long startNanos = frameMetrics != null ? System.nanoTime() : 0;
+
+        boolean isRunning = mTimeline.update(now);
+        // Trails age only as dots move, redraws requested by the parent draw the same frame.
+        mDotTrails.beginFrame();
+
+        if (!isRunning && mTimeline.isFinished()) {
+            // Determinate run completed, a paused timeline simply isn't running.
+            mIsAnimating = false;
+            mIsAnimationRequested = false;
+        }
+
+        if (frameMetrics != null) {
+            frameMetrics.recordStages(mTimeline);
+            frameMetrics.recordFrame(now, System.nanoTime() - startNanos, isOnScreen());
+        }
+
+        return isRunning;
+    }
+
+    /**
+     * Switch between platform animated dots and the dot engine, depending on whether
+     * render thread animation is enabled and supports the current configuration.
+     */
+    private void updateDotsDrawable() {
+        boolean isSupported = mIsRenderThreadAnimationEnabled
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                && !mIsHorizontal && mOrbitPath == null && mIsIndeterminate
+                && mDotCount == DEFAULT_DOT_COUNT
+                && mDotAnimationDuration == DEFAULT_DOT_ANIMATION_DURATION;
+
+        if (isSupported == (mDotsDrawable != null)) {
+            return;
+        }
+
+        pauseAnimating();
+
+        if (isSupported) {
+            mDotsDrawable = createDotsDrawable();
+            mDotsDrawable.setCallback(this);
+            updateDotsDrawableBounds();
+        } else {
+            mDotsDrawable.setCallback(null);
+            mDotsDrawable = null;
+        }
+
+        updateAnimationState();
+        invalidate();
+    }
+
+    /**
+     * @return Platform animated dots in the current dot colour.
+     */
+    @TargetApi(21)
+    private Drawable createDotsDrawable() {
+        Drawable drawable = getContext().getDrawable(
+                R.drawable.windowsx_progress_dots_circle).mutate();
+        drawable.setTint(mDotColor);
+
+        return drawable;
+    }
+
+    /**
+     * Sample {@link #mOrbitPath} for the current size, if set.
+     */
+    private void sampleOrbitPath() {
+        if (mOrbitPath != null) {
+            mOrbitPathPositions.sample(mOrbitPath, mWidth, mHeight, mDotRadius);
+        }
+    }
+
+    /**
+     * Fit platform animated dots into a centered square, like the circular dot trajectory.
+     */
+    private void updateDotsDrawableBounds() {
+        if (mDotsDrawable != null) {
+            int size = Math.min(mWidth, mHeight);
+            int left = getPaddingLeft() + (mWidth - size) / 2;
+            int top = getPaddingTop() + (mHeight - size) / 2;
+
+            mDotsDrawable.setBounds(left, top, left + size, top + size);
+        }
+    }
+
+    /**
+     * @return Refresh rate of the default display, in frames per second.
+     */
+    private float getDisplayRefreshRate() {
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(
+                Context.WINDOW_SERVICE);
+        if (windowManager != null) {
+            Display display = windowManager.getDefaultDisplay();
+            if (display != null && display.getRefreshRate() > 0) {
+                return display.getRefreshRate();
+            }
+        }
+
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    /**
+     * Schedule a redraw for the next frame unless one is already scheduled.
+     */
+    private void scheduleProgressRedraw() {
+        if (mIsProgressRedrawScheduled.compareAndSet(false, true)) {
+            postInvalidateOnAnimation();
+        }
+    }
+
+    /**
+     * Draw positions recorded in previous frames, oldest first, one operation per age.
+     * @param canvas Canvas to draw on.
+     */
+    private void drawTrails(Canvas canvas) {
+        for (int age = mTrailLength - 1; age >= 0; age--) {
+            int count = mDotTrails.gather(age, mTrailPositions);
+            if (count > 0) {
+                canvas.drawPoints(mTrailPositions, 0, count * 2, mTrailPaints[age]);
+            }
+        }
+    }
+
+    /**
+     * Ease displayed progress towards the target and draw dots up to it.
+     * @param canvas Canvas to draw on.
+     */
+    private void drawDeterminateProgress(Canvas canvas) {
+        // Updates arriving from now on need another frame.
+        mIsProgressRedrawScheduled.set(false);
+
+        float target = Float.intBitsToFloat(mTargetProgressBits.get());
+        long now = mFrameClock.uptimeMillis();
+        long frameTime = Math.max(0, Math.min(now - mLastProgressFrameTime, 100));
+        mLastProgressFrameTime = now;
+
+        // Frame-rate independent exponential easing.
+        float easing = frameTime / (PROGRESS_EASING_TIME_CONSTANT + frameTime);
+        mDisplayedProgress += (target - mDisplayedProgress) * easing;
+
+        if (Math.abs(target - mDisplayedProgress) < 0.001f) {
+            mDisplayedProgress = target;
+        } else {
+            scheduleProgressRedraw();
+        }
+
+        // Dots are spread evenly from the start up to the current progress.
+        int count = 0;
+        for (int i = 0; i < mDotCount; i++) {
+            float value = mDisplayedProgress * (mDotCount - i) / mDotCount;
+            if (value <= 0.0f) {
+                break;
+            }
+
+            mTrajectory.getPosition(value, mDotPositions, count * 2);
+            count++;
+        }
+
+        if (count > 0) {
+            canvas.drawPoints(mDotPositions, 0, count * 2, mDotPointPaint);
+            mLastFrameDrawOpCount++;
+        }
     }
 
     /**
@@ -170,27 +1083,47 @@ public class WindowsXProgressBar extends AnimatedView {
      * @param defStyleRes Style resources.
      */
     private void init(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        mScreenDensity = StyleCache.getDensity(context);
+
         initAttributes(context, attrs, defStyleAttr, defStyleRes);
+        initTrajectory();
         initAnimatedDraws();
         initPaints();
+        updateDotsDrawable();
 
-        calculateScreenDensity(context);
-        mDotRadius = 2.5f * mScreenDensity;
+        // Run automatically once the view can be seen.
+        mIsAnimationRequested = mIsIndeterminate;
+        mIsInitialized = true;
+    }
 
-        // Run automatically.
-        if (mIsIndeterminate) {
-            runAnimations();
-        }
+    /**
+     * Initialize dot trajectory attributes.
+     */
+    private void initTrajectory() {
+        mTrajectory.setDotRadius(mDotRadius);
+        mTrajectory.setHorizontal(mIsHorizontal);
     }
 
     /**
      * Initialize paints.
      */
     private void initPaints() {
-        mDotPaint = new Paint();
-        mDotPaint.setColor(Color.BLUE);
-        mDotPaint.setStyle(Paint.Style.FILL);
-        mDotPaint.setAntiAlias(true);
+        // Shared between all progress bars with the same dot colour.
+        mDotPointPaint = StyleCache.getStrokePaint(mDotColor, mDotRadius * 2,
+                Paint.Cap.ROUND, Paint.Join.ROUND);
+
+        // Trail alpha steps, from just below the dot's alpha for the latest position.
+        if (mTrailPaints.length != mTrailLength) {
+            mTrailPaints = new Paint[mTrailLength];
+        }
+        int alpha = Color.alpha(mDotColor);
+        for (int age = 0; age < mTrailLength; age++) {
+            int trailAlpha = alpha * (mTrailLength - age) / (mTrailLength + 1);
+            int trailColor = (mDotColor & 0x00FFFFFF) | (trailAlpha << 24);
+
+            mTrailPaints[age] = StyleCache.getStrokePaint(trailColor, mDotRadius * 2,
+                    Paint.Cap.ROUND, Paint.Join.ROUND);
+        }
     }
 
     /**
@@ -201,6 +1134,16 @@ public class WindowsXProgressBar extends AnimatedView {
      * @param defStyleRes Style resources.
      */
     private void initAttributes(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        mIsIndeterminate = DEFAULT_IS_INDETERMINATE;
+        mDotCount = DEFAULT_DOT_COUNT;
+        mIsHorizontal = DEFAULT_IS_HORIZONTAL;
+        mDotColor = DEFAULT_DOT_COLOR;
+        mDotRadius = DEFAULT_DOT_RADIUS_DP * mScreenDensity;
+        mDotAnimationDuration = DEFAULT_DOT_ANIMATION_DURATION;
+        mEngine = DEFAULT_ENGINE;
+        mTrailLength = DEFAULT_TRAIL_LENGTH;
+        mIsRenderThreadAnimationEnabled = DEFAULT_IS_RENDER_THREAD_ANIMATION_ENABLED;
+
         if (attrs != null) {
             TypedArray styledAttrsArr = context.getTheme().obtainStyledAttributes(attrs,
                     R.styleable.WindowsXProgressBar, defStyleAttr, defStyleRes);
@@ -208,12 +1151,30 @@ public class WindowsXProgressBar extends AnimatedView {
                 mIsIndeterminate = styledAttrsArr.getBoolean(
                         R.styleable.WindowsXProgressBar_indeterminate,
                         DEFAULT_IS_INDETERMINATE);
-                setDotCount(styledAttrsArr.getInt(
+                mDotCount = Math.max(0, styledAttrsArr.getInt(
                         R.styleable.WindowsXProgressBar_dots_count,
                         DEFAULT_DOT_COUNT));
                 mIsHorizontal = styledAttrsArr.getBoolean(
                         R.styleable.WindowsXProgressBar_horizontal,
                         DEFAULT_IS_HORIZONTAL);
+                mDotColor = styledAttrsArr.getColor(
+                        R.styleable.WindowsXProgressBar_dot_color,
+                        mDotColor);
+                mDotRadius = styledAttrsArr.getDimension(
+                        R.styleable.WindowsXProgressBar_dot_radius,
+                        mDotRadius);
+                mDotAnimationDuration = Math.max(1, styledAttrsArr.getInt(
+                        R.styleable.WindowsXProgressBar_dot_duration,
+                        mDotAnimationDuration));
+                mEngine = styledAttrsArr.getInt(
+                        R.styleable.WindowsXProgressBar_dots_engine,
+                        mEngine);
+                mTrailLength = Math.max(0, styledAttrsArr.getInt(
+                        R.styleable.WindowsXProgressBar_trail_length,
+                        mTrailLength));
+                mIsRenderThreadAnimationEnabled = styledAttrsArr.getBoolean(
+                        R.styleable.WindowsXProgressBar_render_thread_animation,
+                        mIsRenderThreadAnimationEnabled);
             } finally {
                 styledAttrsArr.recycle();
             }
@@ -224,160 +1185,198 @@ public class WindowsXProgressBar extends AnimatedView {
      * Initialize {@link AnimatedDraw} objects.
      */
     private void initAnimatedDraws() {
-        // Clear any current animated draws.
-        if (mProgressDotAnimatedDraws.size() > 0) {
-            for (AnimatedDraw animatedDraw: mProgressDotAnimatedDraws) {
-                removeAnimated(animatedDraw);
-            }
+        if (mTimelineAnimatedDraw != null) {
+            removeAnimated(mTimelineAnimatedDraw);
         }
-        mProgressDotAnimatedDraws.clear();
 
-        // Create animated draw for each dot count.
-        for (int i = 0; i < mDotCount; i++ ) {
-            ProgressDotAnimatedDraw animatedDraw = new ProgressDotAnimatedDraw(
-                    new CustomInterpolator(), DOT_ANIMATION_DURATION, i);
+        // Stages are rebuilt for the current engine, dot draws come back from the pool.
+        detachDotAnimatedDraws(0);
+        mTimeline.clearStages();
 
-            mProgressDotAnimatedDraws.add(animatedDraw);
-            addAnimated(animatedDraw);
-        }
+        updateDots();
+
+        // Indeterminate animation starts over once the last dot ends.
+        mTimeline.setLooping(mIsIndeterminate);
+
+        mTimelineAnimatedDraw = new TimelineAnimatedDraw(new LinearInterpolator(),
+                (int) Math.max(mTimeline.getDuration(), mDotAnimationDuration));
+        addAnimated(mTimelineAnimatedDraw);
     }
 
     /**
-     * Calculate screen density for this device.
-     * @param context Context to get {@link WindowManager} instance from.
+     * Bring timeline stages, dot draws and buffers in line with {@link #mDotCount}.
+     * Only the difference is added or removed, existing stages are retimed.
      */
-    private void calculateScreenDensity(Context context) {
-        DisplayMetrics displayMetrics = new DisplayMetrics();
+    private void updateDots() {
+        mNextDotTimeFraction = mDotCount > 0 ? 1.0f / mDotCount : 0.0f;
 
-        WindowManager windowManager = (WindowManager) context
-                .getSystemService(Context.WINDOW_SERVICE);
-        windowManager.getDefaultDisplay().getMetrics(displayMetrics);
+        if (mEngine == ENGINE_SINGLE_CLOCK) {
+            // All dots are calculated from the timeline's elapsed time.
+            mDotEngine.configure(mDotCount, mDotAnimationDuration);
+            mTimeline.setDuration(mDotEngine.getPeriod());
 
-        mScreenDensity = displayMetrics.density;
-    }
+        } else {
+            mTimeline.setDuration(0);
 
-    private void setDotCount(int dotCount) {
-        mDotCount = dotCount;
+            long nextDotDelay = (long) (mDotAnimationDuration * mNextDotTimeFraction);
 
-        mNextDotTimeFraction = 1.0f / dotCount;
+            // Retime existing stages, drop extra ones and add missing ones.
+            if (mTimeline.getStageCount() > mDotCount) {
+                mTimeline.removeStages(mDotCount);
+            }
+            for (int i = 0; i < mDotCount; i++) {
+                if (i < mTimeline.getStageCount()) {
+                    mTimeline.setStageTiming(i, i * nextDotDelay, mDotAnimationDuration);
+                } else {
+                    mTimeline.addStage(i * nextDotDelay, mDotAnimationDuration,
+                            mDotInterpolator);
+                }
+            }
+
+            detachDotAnimatedDraws(mDotCount);
+            attachDotAnimatedDraws(mDotCount);
+        }
+
+        if (mDotPositions.length < mDotCount * 2) {
+            mDotPositions = new float[mDotCount * 2];
+            mTrailPositions = new float[mDotCount * 2];
+            mDotIndices = new int[mDotCount];
+        }
+
+        mDotTrails.configure(mDotCount, mTrailLength);
     }
 
-    private class ProgressDotAnimatedDraw extends AnimatedDraw {
+    /**
+     * Add pooled dot draws to the view until the given amount is attached.
+     * @param count Amount of dot draws to attach.
+     */
+    private void attachDotAnimatedDraws(int count) {
+        if (mAttachedDotAnimatedDrawCount >= count) {
+            return;
+        }
 
-        /**
-         * Defines the order in the dot list.
-         */
-        private final int mSerialCount;
+        while (mAttachedDotAnimatedDrawCount < count) {
+            int serialCount = mAttachedDotAnimatedDrawCount++;
+            if (serialCount == mProgressDotAnimatedDraws.size()) {
+                mProgressDotAnimatedDraws.add(new ProgressDotAnimatedDraw(mDotInterpolator,
+                        mDotAnimationDuration, serialCount));
+            }
 
-        /**
-         * Defines if this dot has invoked the animation of the next dot.
-         */
-        private boolean mInvokedNext = false;
+            addAnimated(mProgressDotAnimatedDraws.get(serialCount));
+        }
 
-        /**
-         * Defines if this is the last dot in the list.
-         */
-        private boolean mIsLast = false;
+        if (mTimelineAnimatedDraw != null) {
+            // Keep the timeline advancing after every dot.
+            removeAnimated(mTimelineAnimatedDraw);
+            addAnimated(mTimelineAnimatedDraw);
+        }
+    }
 
-        public ProgressDotAnimatedDraw(TimeInterpolator interpolator, int durationMillis,
-                                       int serialCount) {
-            super(interpolator, durationMillis);
+    /**
+     * Remove dot draws from the view, keeping them pooled, until the given amount is attached.
+     * @param count Amount of dot draws to keep attached.
+     */
+    private void detachDotAnimatedDraws(int count) {
+        while (mAttachedDotAnimatedDrawCount > count) {
+            removeAnimated(mProgressDotAnimatedDraws.get(--mAttachedDotAnimatedDrawCount));
+        }
+    }
 
-            mSerialCount = serialCount;
+    /**
+     * Requests frames while {@link #mTimeline} runs and advances it every frame,
+     * unless frames come from the shared {@link AnimationScheduler}.
+     * Draws all dots with a single operation. Added after every {@link ProgressDotAnimatedDraw},
+     * so with {@link #ENGINE_PER_DOT} all dots already wrote their positions.
+     */
+    private class TimelineAnimatedDraw extends AnimatedDraw {
 
-            if (serialCount + 1 == mDotCount) {
-                mIsLast = true;
-            }
+        public TimelineAnimatedDraw(TimeInterpolator interpolator, int durationMillis) {
+            super(interpolator, durationMillis);
         }
 
         @Override
         public void onFrame(float interpolatedTime) {
-            if (mIsLast) {
-                if (interpolatedTime == 1.0f) {
-                    // Check if the animation is indeterminate - if it is reset it once animation ends.
-                    if (mIsIndeterminate) {
-                        try {
-                            for (AnimatedDraw animatedDraw: mProgressDotAnimatedDraws) {
-                                animatedDraw.stopAnimation();
-                            }
-
-                            AnimatedDraw firstDot = mProgressDotAnimatedDraws
-                                    .get(0);
-
-                            firstDot.startAnimation();
-                        } catch (IndexOutOfBoundsException e) {
-                            // Do nothing.
-                        }
-                    }
-                }
-            } else {
-                // Check if the next dot animation should be invoked.
-                if (!mInvokedNext && interpolatedTime >= mNextDotTimeFraction) {
-                    mInvokedNext = true;
-
-                    try {
-                        AnimatedDraw nextAnimatedDraw = mProgressDotAnimatedDraws
-                                .get(mSerialCount + 1);
+            if (isScheduled()) {
+                // Already advanced by the scheduler for this frame.
+                return;
+            }
 
-                        nextAnimatedDraw.startAnimation();
-                    } catch (IndexOutOfBoundsException e) {
-                        // Do nothing.
-                    }
-                }
+            if (advanceTimeline(mFrameClock.uptimeMillis()) && interpolatedTime == 1.0f) {
+                // Frames ran out before the timeline did, keep them coming.
+                startAnimation();
             }
         }
 
         @Override
         public void onDraw(Canvas canvas) {
-            float interpolatedValue = getAnimatedValue();
-            if (interpolatedValue > 0 && interpolatedValue < 1) {
-                // Use radius offset to make sure the dot isn't cut in half when starting.
-                float offset = mDotRadius;
-
-                if (mIsHorizontal) {
-                    canvas.drawCircle(offset + mWidth * interpolatedValue,
-                            mHeight / 2, mDotRadius, mDotPaint);
-                } else {
+            if (mDotsDrawable != null) {
+                // Dots are animated by the platform.
+                return;
+            }
 
-                    float xInterpolation = (float) (mCenter.x
-                            + (mRadius - mDotRadius) * Math.cos(interpolatedValue * 2.0 * 3.14));
-                    float yInterpolation = (float) (mCenter.y
-                            + (mRadius - mDotRadius) * Math.sin(interpolatedValue * 2.0 * 3.14));
+            int count;
+            if (mEngine == ENGINE_SINGLE_CLOCK) {
+                count = mDotEngine.computePositions(mTimeline.getElapsed(), mTrajectory,
+                        mDotPositions, mDotIndices);
 
-                    canvas.drawCircle(xInterpolation, yInterpolation,
-                            mDotRadius, mDotPaint);
+                if (mTrailLength > 0) {
+                    for (int i = 0; i < count; i++) {
+                        mDotTrails.record(mDotIndices[i], mDotPositions[i * 2],
+                                mDotPositions[i * 2 + 1]);
+                    }
                 }
+            } else {
+                // Written by the dot draws, which run before this one.
+                count = mBatchedDotCount;
+                mBatchedDotCount = 0;
             }
-        }
 
-        @Override
-        public void stopAnimation() {
-            super.stopAnimation();
-
-            mInvokedNext = false;
+            if (count > 0) {
+                // Round caps turn every point into a dot.
+                canvas.drawPoints(mDotPositions, 0, count * 2, mDotPointPaint);
+                mLastFrameDrawOpCount++;
+            }
         }
     }
 
     /**
-     * Custom interpolator for dot animation.
-     * This interpolator implements two different functions according to time.
-     *
-     * <p>For t <= 0.5: y = -1 * cos((t * 2+1)π * 0.5)/2</p>
-     * <p>For t > 0.5: y = 0.5 + 0.5 - (-1 * cos((t * 2+1)π * 0.5)/2)</p>
-     *
-     * These functions allows the dots to accelerate and decelerate twice.
+     * Follows the timeline stage of a single dot, writing its position for the batched draw.
      */
-    private class CustomInterpolator implements Interpolator {
+    private class ProgressDotAnimatedDraw extends AnimatedDraw {
+
+        /**
+         * Defines the order in the dot list, which is also the dot's timeline stage.
+         */
+        private final int mSerialCount;
+
+        public ProgressDotAnimatedDraw(TimeInterpolator interpolator, int durationMillis,
+                                       int serialCount) {
+            super(interpolator, durationMillis);
+
+            mSerialCount = serialCount;
+        }
+
         @Override
-        public float getInterpolation(float t) {
-            float func = (float) (-1.0f * Math.cos((t * 2 + 1) * 3.14 * 0.5f) / 2);
+        public void onFrame(float interpolatedTime) {
+            // Progress comes from the shared timeline.
+        }
 
-            if (t > 0.5f) {
-                float currentValue = func;
-                func = 0.5f + 0.5f - currentValue;
+        @Override
+        public void onDraw(Canvas canvas) {
+            // Only writes the position, mTimelineAnimatedDraw draws all dots at once.
+            if (mDotsDrawable == null && mTimeline.isStageActive(mSerialCount)
+                    && mBatchedDotCount < mDotCount) {
+                float interpolatedValue = mTimeline.getStageValue(mSerialCount);
+                int offset = mBatchedDotCount * 2;
+
+                mTrajectory.getPosition(interpolatedValue, mDotPositions, offset);
+                mBatchedDotCount++;
+
+                if (mTrailLength > 0) {
+                    mDotTrails.record(mSerialCount, mDotPositions[offset],
+                            mDotPositions[offset + 1]);
+                }
             }
-
-            return func;
         }
     }
 }
@@ -0,0 +1,546 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+
+import com.hotmail.maximglukhov.animatedviewcore.StyleCache;
+
+/**
+ * Indeterminate {@link WindowsXProgressBar} dots drawn on a {@link SurfaceView} by a render
+ * thread of its own, meant for full-screen loading states.
+ *
+ * <p>The main thread only forwards lifecycle events: surface creation, size changes, visibility
+ * and {@link #onPause()}/{@link #onResume()}. Every frame is timed by the render thread's
+ * {@link Choreographer} and drawn for its vsync timestamp, so dots keep moving evenly however
+ * busy the main thread gets.</p>
+ *
+ * <p>The surface is opaque and filled with the surface colour every frame.</p>
+ */
+public class WindowsXProgressSurfaceView extends SurfaceView implements SurfaceHolder.Callback {
+
+    /**
+     * Defines the default amount of dots.
+     */
+    private static final int DEFAULT_DOT_COUNT = 5;
+
+    /**
+     * Default dot animation duration.
+     */
+    private static final int DEFAULT_DOT_ANIMATION_DURATION = 1500;
+
+    /**
+     * Default dot colour.
+     */
+    private static final int DEFAULT_DOT_COLOR = Color.BLUE;
+
+    /**
+     * Default colour behind the dots.
+     */
+    private static final int DEFAULT_SURFACE_COLOR = Color.WHITE;
+
+    /**
+     * Default dot radius in dp.
+     */
+    private static final float DEFAULT_DOT_RADIUS_DP = 2.5f;
+
+    /**
+     * Defines if the animation is horizontal or circular.
+     */
+    private static final boolean DEFAULT_IS_HORIZONTAL = true;
+
+    /**
+     * Defines the amount of dots.
+     */
+    private int mDotCount;
+
+    /**
+     * Duration of a single dot's animation.
+     */
+    private int mDotAnimationDuration;
+
+    /**
+     * Determines if the animation is horizontal.
+     */
+    private boolean mIsHorizontal;
+
+    /**
+     * Radius of every dot.
+     */
+    private float mDotRadius;
+
+    /**
+     * Dot colour.
+     */
+    private int mDotColor;
+
+    /**
+     * Colour filling the surface behind the dots.
+     */
+    private int mSurfaceColor;
+
+    /**
+     * Device's screen density. Important for consistent sizing on different displays.
+     */
+    private float mScreenDensity;
+
+    /**
+     * Draws the dots. Used by the render thread while there is one, by the main thread otherwise.
+     * Starting and joining the thread hands it over safely.
+     */
+    private final DotRenderer mRenderer = new DotRenderer();
+
+    /**
+     * Thread drawing on the surface while it exists, or null.
+     */
+    private RenderThread mRenderThread;
+
+    /**
+     * Determines if the render thread was told to animate.
+     */
+    private boolean mIsRendering;
+
+    /**
+     * Determines if the host is resumed, see {@link #onPause()}.
+     */
+    private boolean mIsResumed = true;
+
+    public WindowsXProgressSurfaceView(Context context) {
+        super(context);
+
+        init(context, null, 0);
+    }
+
+    public WindowsXProgressSurfaceView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        init(context, attrs, 0);
+    }
+
+    public WindowsXProgressSurfaceView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        init(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * Pause the animation, keeping its phase. Call from the host's onPause.
+     */
+    public void onPause() {
+        mIsResumed = false;
+        updateRendering();
+    }
+
+    /**
+     * Resume the animation where it was paused. Call from the host's onResume.
+     */
+    public void onResume() {
+        mIsResumed = true;
+        updateRendering();
+    }
+
+    /**
+     * @param dotCount Amount of dots.
+     */
+    public void setDotCount(int dotCount) {
+        dotCount = Math.max(0, dotCount);
+        if (mDotCount != dotCount) {
+            mDotCount = dotCount;
+            updateStyle();
+        }
+    }
+
+    /**
+     * @return Amount of dots.
+     */
+    public int getDotCount() {
+        return mDotCount;
+    }
+
+    /**
+     * @param dotColor Dot colour.
+     */
+    public void setDotColor(int dotColor) {
+        if (mDotColor != dotColor) {
+            mDotColor = dotColor;
+            updateStyle();
+        }
+    }
+
+    /**
+     * @return Dot colour.
+     */
+    public int getDotColor() {
+        return mDotColor;
+    }
+
+    /**
+     * @param surfaceColor Opaque colour filling the surface behind the dots.
+     */
+    public void setSurfaceColor(int surfaceColor) {
+        if (mSurfaceColor != surfaceColor) {
+            mSurfaceColor = surfaceColor;
+            updateStyle();
+        }
+    }
+
+    /**
+     * @return Colour filling the surface behind the dots.
+     */
+    public int getSurfaceColor() {
+        return mSurfaceColor;
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        mRenderThread = new RenderThread(holder, mRenderer);
+        mRenderThread.startRendering();
+
+        updateRendering();
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        // Dots keep within the padding, like the view.
+        mRenderThread.setSize(new Rect(getPaddingLeft(), getPaddingTop(),
+                width - getPaddingRight(), height - getPaddingBottom()));
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // The surface can't be drawn on once this returns.
+        mRenderThread.quitAndWait();
+        mRenderThread = null;
+        mIsRendering = false;
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+
+        updateRendering();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+
+        updateRendering();
+    }
+
+    /**
+     * Start or pause the render thread's animation, depending on whether the surface exists,
+     * the host is resumed and the view is shown.
+     */
+    private void updateRendering() {
+        boolean shouldRender = mRenderThread != null && mIsResumed && isShown()
+                && getWindowVisibility() == VISIBLE;
+
+        if (shouldRender != mIsRendering) {
+            mIsRendering = shouldRender;
+            mRenderThread.setRendering(shouldRender);
+        }
+    }
+
+    /**
+     * Hand the current look to the renderer.
+     */
+    private void updateStyle() {
+        DotRenderer.Style style = new DotRenderer.Style(mDotCount, mDotAnimationDuration,
+                mIsHorizontal, mDotRadius, mDotColor, mSurfaceColor);
+
+        if (mRenderThread != null) {
+            mRenderThread.setStyle(style);
+        } else {
+            mRenderer.setStyle(style);
+        }
+    }
+
+    /**
+     * Initialize this view's attributes.
+     * @param context {@link Context} to initialize for.
+     * @param attrs Attributes for this view.
+     * @param defStyleAttr Style attributes.
+     */
+    private void init(Context context, AttributeSet attrs, int defStyleAttr) {
+        mScreenDensity = StyleCache.getDensity(context);
+
+        initAttributes(context, attrs, defStyleAttr);
+        updateStyle();
+
+        getHolder().addCallback(this);
+    }
+
+    /**
+     * Initialize attributes
+     * @param context {@link Context} to initialize for.
+     * @param attrs Attributes for this view.
+     * @param defStyleAttr Style attributes.
+     */
+    private void initAttributes(Context context, AttributeSet attrs, int defStyleAttr) {
+        mDotCount = DEFAULT_DOT_COUNT;
+        mIsHorizontal = DEFAULT_IS_HORIZONTAL;
+        mDotColor = DEFAULT_DOT_COLOR;
+        mSurfaceColor = DEFAULT_SURFACE_COLOR;
+        mDotRadius = DEFAULT_DOT_RADIUS_DP * mScreenDensity;
+        mDotAnimationDuration = DEFAULT_DOT_ANIMATION_DURATION;
+
+        if (attrs != null) {
+            TypedArray styledAttrsArr = context.getTheme().obtainStyledAttributes(attrs,
+                    R.styleable.WindowsXProgressSurfaceView, defStyleAttr, 0);
+            try {
+                mDotCount = Math.max(0, styledAttrsArr.getInt(
+                        R.styleable.WindowsXProgressSurfaceView_dots_count,
+                        mDotCount));
+                mIsHorizontal = styledAttrsArr.getBoolean(
+                        R.styleable.WindowsXProgressSurfaceView_horizontal,
+                        mIsHorizontal);
+                mDotColor = styledAttrsArr.getColor(
+                        R.styleable.WindowsXProgressSurfaceView_dot_color,
+                        mDotColor);
+                mSurfaceColor = styledAttrsArr.getColor(
+                        R.styleable.WindowsXProgressSurfaceView_surface_color,
+                        mSurfaceColor);
+                mDotRadius = styledAttrsArr.getDimension(
+                        R.styleable.WindowsXProgressSurfaceView_dot_radius,
+                        mDotRadius);
+                mDotAnimationDuration = Math.max(1, styledAttrsArr.getInt(
+                        R.styleable.WindowsXProgressSurfaceView_dot_duration,
+                        mDotAnimationDuration));
+            } finally {
+                styledAttrsArr.recycle();
+            }
+        }
+    }
+
+    /**
+     * Draws on the surface from its own looper. Frames are requested from the looper's
+     * {@link Choreographer} only while animating; a paused thread draws once per change
+     * so the surface never shows stale content.
+     */
+    private static final class RenderThread extends HandlerThread
+            implements Handler.Callback, Choreographer.FrameCallback {
+
+        private static final String THREAD_NAME = "WindowsXProgressRender";
+
+        private static final long NANOS_PER_MILLI = 1000000L;
+
+        private static final int MSG_SET_STYLE = 0;
+        private static final int MSG_SET_SIZE = 1;
+        private static final int MSG_SET_RENDERING = 2;
+        private static final int MSG_QUIT = 3;
+
+        private final SurfaceHolder mSurfaceHolder;
+        private final DotRenderer mRenderer;
+
+        /**
+         * Posts to this thread. Created on the main thread once the looper exists.
+         */
+        private Handler mHandler;
+
+        /**
+         * Vsync source of this thread.
+         */
+        private Choreographer mChoreographer;
+
+        /**
+         * Determines if the dots are animating. Render thread only.
+         */
+        private boolean mIsRendering;
+
+        /**
+         * Determines if a frame callback is currently posted. Render thread only.
+         */
+        private boolean mIsFrameRequested;
+
+        RenderThread(SurfaceHolder surfaceHolder, DotRenderer renderer) {
+            super(THREAD_NAME, Process.THREAD_PRIORITY_DISPLAY);
+
+            mSurfaceHolder = surfaceHolder;
+            mRenderer = renderer;
+        }
+
+        /**
+         * Start the thread. Main thread only.
+         */
+        void startRendering() {
+            start();
+            mHandler = new Handler(getLooper(), this);
+        }
+
+        /**
+         * @param style New look of the dots.
+         */
+        void setStyle(DotRenderer.Style style) {
+            mHandler.sendMessage(mHandler.obtainMessage(MSG_SET_STYLE, style));
+        }
+
+        /**
+         * @param bounds Area dots move within.
+         */
+        void setSize(Rect bounds) {
+            mHandler.sendMessage(mHandler.obtainMessage(MSG_SET_SIZE, bounds));
+        }
+
+        /**
+         * @param rendering True to animate, false to pause keeping the phase.
+         */
+        void setRendering(boolean rendering) {
+            mHandler.sendMessage(mHandler.obtainMessage(MSG_SET_RENDERING, rendering ? 1 : 0, 0));
+        }
+
+        /**
+         * Pause, stop the thread and wait until it no longer touches the surface.
+         */
+        void quitAndWait() {
+            mHandler.sendEmptyMessage(MSG_QUIT);
+
+            boolean isInterrupted = false;
+            while (true) {
+                try {
+                    join();
+                    break;
+                } catch (InterruptedException e) {
+                    // The surface must not be used after surfaceDestroyed, keep waiting.
+                    isInterrupted = true;
+                }
+            }
+
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        protected void onLooperPrepared() {
+            mChoreographer = Choreographer.getInstance();
+        }
+
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_SET_STYLE:
+                    mRenderer.setStyle((DotRenderer.Style) msg.obj);
+                    drawIfPaused();
+                    return true;
+
+                case MSG_SET_SIZE:
+                    Rect bounds = (Rect) msg.obj;
+                    mRenderer.setSize(bounds.left, bounds.top, bounds.width(), bounds.height());
+                    // A resized surface has no content until drawn.
+                    drawIfPaused();
+                    return true;
+
+                case MSG_SET_RENDERING:
+                    setRenderingInternal(msg.arg1 != 0);
+                    return true;
+
+                case MSG_QUIT:
+                    setRenderingInternal(false);
+                    getLooper().quit();
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mIsFrameRequested = false;
+
+            if (!mIsRendering) {
+                return;
+            }
+
+            // Positions for the vsync the frame is shown at, however late this callback runs.
+            drawFrame(frameTimeNanos / NANOS_PER_MILLI);
+
+            mIsFrameRequested = true;
+            mChoreographer.postFrameCallback(this);
+        }
+
+        private void setRenderingInternal(boolean rendering) {
+            if (mIsRendering == rendering) {
+                return;
+            }
+
+            mIsRendering = rendering;
+            long now = System.nanoTime() / NANOS_PER_MILLI;
+
+            if (rendering) {
+                // Frame times share System.nanoTime's clock.
+                mRenderer.resume(now);
+
+                if (!mIsFrameRequested) {
+                    mIsFrameRequested = true;
+                    mChoreographer.postFrameCallback(this);
+                }
+            } else {
+                mRenderer.pause(now);
+
+                if (mIsFrameRequested) {
+                    mIsFrameRequested = false;
+                    mChoreographer.removeFrameCallback(this);
+                }
+            }
+        }
+
+        /**
+         * Draw the current phase once, unless frames are drawn anyway.
+         */
+        private void drawIfPaused() {
+            if (!mIsRendering) {
+                drawFrame(System.nanoTime() / NANOS_PER_MILLI);
+            }
+        }
+
+        private void drawFrame(long frameTimeMillis) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                drawFrameHardware(frameTimeMillis);
+                return;
+            }
+
+            Canvas canvas = mSurfaceHolder.lockCanvas();
+            if (canvas == null) {
+                // Surface is not ready.
+                return;
+            }
+
+            try {
+                mRenderer.draw(canvas, frameTimeMillis);
+            } finally {
+                mSurfaceHolder.unlockCanvasAndPost(canvas);
+            }
+        }
+
+        @TargetApi(Build.VERSION_CODES.M)
+        private void drawFrameHardware(long frameTimeMillis) {
+            Surface surface = mSurfaceHolder.getSurface();
+            if (surface == null || !surface.isValid()) {
+                return;
+            }
+
+            Canvas canvas = surface.lockHardwareCanvas();
+            try {
+                mRenderer.draw(canvas, frameTimeMillis);
+            } finally {
+                surface.unlockCanvasAndPost(canvas);
+            }
+        }
+    }
+}
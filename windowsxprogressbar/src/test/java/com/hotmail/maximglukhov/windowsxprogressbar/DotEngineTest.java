@@ -0,0 +1,85 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import com.hotmail.maximglukhov.animatedviewcore.AnimationTimeline;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link DotEngine}.
+ */
+public class DotEngineTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void period_coversLastDot() throws Exception {
+        DotEngine engine = new DotEngine();
+        engine.configure(5, 1500);
+
+        // Last dot starts 4 * 300ms after the first one.
+        assertEquals(2700, engine.getPeriod());
+    }
+
+    @Test
+    public void positions_matchPerDotTimeline() throws Exception {
+        int dotCount = 5;
+        long duration = 1500;
+
+        DotTrajectory trajectory = new DotTrajectory();
+        trajectory.setSize(400, 40);
+        trajectory.setDotRadius(5);
+
+        DotEngine engine = new DotEngine();
+        engine.configure(dotCount, duration);
+
+        // Same dots declared as timeline stages, like the per-dot engine does.
+        AnimationTimeline timeline = new AnimationTimeline();
+        CustomInterpolator interpolator = new CustomInterpolator();
+        for (int i = 0; i < dotCount; i++) {
+            timeline.addStage(i * duration / dotCount, duration, interpolator);
+        }
+
+        float[] positions = new float[dotCount * 2];
+        float[] expected = new float[2];
+
+        for (long elapsed = 0; elapsed < engine.getPeriod(); elapsed += 16) {
+            timeline.seek(elapsed);
+            int count = engine.computePositions(elapsed, trajectory, positions);
+
+            int index = 0;
+            for (int i = 0; i < dotCount; i++) {
+                if (timeline.isStageActive(i)) {
+                    trajectory.getPosition(timeline.getStageValue(i), expected, 0);
+
+                    assertEquals(expected[0], positions[index * 2], DELTA);
+                    assertEquals(expected[1], positions[index * 2 + 1], DELTA);
+                    index++;
+                }
+            }
+
+            assertEquals("Moving dots at " + elapsed, index, count);
+        }
+    }
+
+    @Test
+    public void hundredsOfDots_stayWithinBounds() throws Exception {
+        int dotCount = 500;
+
+        DotTrajectory trajectory = new DotTrajectory();
+        trajectory.setSize(200, 200);
+        trajectory.setDotRadius(2);
+        trajectory.setHorizontal(false);
+
+        DotEngine engine = new DotEngine();
+        engine.configure(dotCount, 1500);
+
+        float[] positions = new float[dotCount * 2];
+        int count = engine.computePositions(engine.getPeriod() / 2, trajectory, positions);
+
+        for (int i = 0; i < count * 2; i++) {
+            assertEquals(100.0f, positions[i], 98.0f + DELTA);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.graphics.Color;
+
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link DotRenderer}, drawing on a canvas recording dot positions.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DotRendererTest {
+
+    private static final int DOT_COUNT = 5;
+    private static final long DOT_DURATION = 1500;
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 40;
+    private static final float DELTA = 0.01f;
+
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+    private DotRenderer mRenderer;
+
+    @Before
+    public void setUp() throws Exception {
+        mRenderer = new DotRenderer();
+        mRenderer.setStyle(new DotRenderer.Style(DOT_COUNT, DOT_DURATION, true, 5.0f,
+                Color.BLUE, Color.WHITE));
+        mRenderer.setSize(0, 0, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void frames_matchDotEngine() throws Exception {
+        DotTrajectory trajectory = new DotTrajectory();
+        trajectory.setSize(WIDTH, HEIGHT);
+        trajectory.setDotRadius(5.0f);
+
+        DotEngine engine = new DotEngine();
+        engine.configure(DOT_COUNT, DOT_DURATION);
+        float[] expected = new float[DOT_COUNT * 2];
+
+        long start = 10000;
+        mRenderer.resume(start);
+
+        for (long elapsed = 16; elapsed < engine.getPeriod(); elapsed += 160) {
+            int count = mRenderer.draw(mCanvas, start + elapsed);
+
+            assertEquals(count, engine.computePositions(elapsed, trajectory, expected));
+            assertEquals(Color.WHITE, mCanvas.getColor());
+            assertEquals(count, mCanvas.getDotCount());
+            for (int i = 0; i < count * 2; i++) {
+                assertEquals(expected[i], mCanvas.getDotPosition(i), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void pause_keepsPhase() throws Exception {
+        mRenderer.resume(0);
+        mRenderer.draw(mCanvas, 500);
+        mRenderer.pause(500);
+
+        // Paused frames, such as after a size change, draw the same phase.
+        mRenderer.draw(mCanvas, 5000);
+        assertEquals(500, mRenderer.getElapsed());
+
+        mRenderer.resume(8000);
+        mRenderer.draw(mCanvas, 8100);
+        assertEquals(600, mRenderer.getElapsed());
+    }
+
+    @Test
+    public void period_loops() throws Exception {
+        DotEngine engine = new DotEngine();
+        engine.configure(DOT_COUNT, DOT_DURATION);
+
+        mRenderer.resume(0);
+        mRenderer.draw(mCanvas, engine.getPeriod() + 100);
+
+        assertEquals(100, mRenderer.getElapsed());
+    }
+
+}
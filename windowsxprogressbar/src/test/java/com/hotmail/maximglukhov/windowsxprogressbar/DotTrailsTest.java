@@ -0,0 +1,81 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link DotTrails}.
+ */
+public class DotTrailsTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void gather_returnsPositionsByAge() throws Exception {
+        DotTrails trails = new DotTrails();
+        trails.configure(2, 3);
+
+        // Dot 0 moves for four frames, dot 1 joins in the last one.
+        for (int frame = 0; frame < 4; frame++) {
+            trails.beginFrame();
+            trails.record(0, frame, 0);
+            if (frame == 3) {
+                trails.record(1, 100, 100);
+            }
+        }
+        trails.beginFrame();
+
+        float[] out = new float[4];
+        assertEquals(2, trails.gather(0, out));
+        assertEquals(3, out[0], DELTA);
+        assertEquals(100, out[2], DELTA);
+
+        // Only the latest three positions are kept.
+        assertEquals(1, trails.gather(2, out));
+        assertEquals(1, out[0], DELTA);
+    }
+
+    @Test
+    public void skippedFrame_startsNewTrail() throws Exception {
+        DotTrails trails = new DotTrails();
+        trails.configure(1, 4);
+
+        trails.beginFrame();
+        trails.record(0, 1, 1);
+        trails.beginFrame();
+        trails.record(0, 2, 2);
+
+        // Dot not moving for a frame.
+        trails.beginFrame();
+        trails.beginFrame();
+        float[] out = new float[2];
+        assertEquals(0, trails.gather(0, out));
+
+        trails.record(0, 5, 5);
+        trails.beginFrame();
+        assertEquals(1, trails.gather(0, out));
+        assertEquals(0, trails.gather(1, out));
+    }
+
+    @Test
+    public void redraw_keepsTrails() throws Exception {
+        DotTrails trails = new DotTrails();
+        trails.configure(1, 3);
+
+        trails.beginFrame();
+        trails.record(0, 1, 1);
+        trails.beginFrame();
+        trails.record(0, 2, 2);
+
+        // The same frame drawn twice, the latest position is the dot itself.
+        float[] out = new float[2];
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1, trails.gather(0, out));
+            assertEquals(1, out[0], DELTA);
+            assertEquals(0, trails.gather(1, out));
+
+            trails.record(0, 2, 2);
+        }
+    }
+}
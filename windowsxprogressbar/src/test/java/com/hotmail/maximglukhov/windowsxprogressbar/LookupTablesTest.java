@@ -0,0 +1,56 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Local unit tests for {@link LookupTables}, checking error bounds against exact functions.
+ */
+public class LookupTablesTest {
+
+    /**
+     * Maximum allowed error, well below a hundredth of a pixel for typical dot orbits.
+     */
+    private static final float MAX_ERROR = 1e-5f;
+
+    private static final int SAMPLES = 100000;
+
+    @Test
+    public void sinAndCos_matchExactFunctions() throws Exception {
+        for (int i = 0; i <= SAMPLES; i++) {
+            float turns = i / (float) SAMPLES;
+            double radians = 2.0 * Math.PI * turns;
+
+            assertEquals("sin(" + turns + ")", Math.sin(radians),
+                    LookupTables.sinTurns(turns), MAX_ERROR);
+            assertEquals("cos(" + turns + ")", Math.cos(radians),
+                    LookupTables.cosTurns(turns), MAX_ERROR);
+        }
+    }
+
+    @Test
+    public void sinAndCos_wrapAroundTurns() throws Exception {
+        assertEquals(LookupTables.sinTurns(0.3f), LookupTables.sinTurns(2.3f), MAX_ERROR);
+        assertEquals(LookupTables.cosTurns(0.3f), LookupTables.cosTurns(-0.7f), MAX_ERROR);
+    }
+
+    @Test
+    public void circle_closesWithoutGap() throws Exception {
+        assertEquals(LookupTables.cosTurns(0.0f), LookupTables.cosTurns(1.0f), MAX_ERROR);
+        assertEquals(LookupTables.sinTurns(0.0f), LookupTables.sinTurns(1.0f), MAX_ERROR);
+    }
+
+    @Test
+    public void easing_matchesExactFunction() throws Exception {
+        for (int i = 0; i <= SAMPLES; i++) {
+            float t = i / (float) SAMPLES;
+
+            assertEquals("easing(" + t + ")", LookupTables.easingExact(t),
+                    LookupTables.easing(t), MAX_ERROR);
+        }
+
+        assertEquals(0.0f, LookupTables.easing(0.0f), MAX_ERROR);
+        assertEquals(1.0f, LookupTables.easing(1.0f), MAX_ERROR);
+    }
+}
@@ -0,0 +1,355 @@
+package com.hotmail.maximglukhov.windowsxprogressbar;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.hotmail.maximglukhov.animatedviewcore.FrameRateGovernor;
+import com.hotmail.maximglukhov.animatedviewcore.ManualAnimationScheduler;
+import com.hotmail.maximglukhov.animatedviewcore.ManualFrameClock;
+import com.hotmail.maximglukhov.animatedviewcore.RecordingCanvas;
+import com.hotmail.maximglukhov.animatedviewlib.AnimatedDraw;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives {@link WindowsXProgressBar} frame by frame from a simulated clock, including dropped
+ * and late frames.
+ *
+ * <p>A frame does what {@link com.hotmail.maximglukhov.animatedviewlib.AnimatedView} does when
+ * drawing: every animated draw gets {@code onFrame}, then statics and animated draws are drawn
+ * on a canvas recording dot positions. Views on their default clock get frames from a
+ * {@link ManualAnimationScheduler} instead.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class WindowsXProgressBarFrameTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 40;
+    private static final int FRAME_INTERVAL = 16;
+    private static final float DELTA = 0.01f;
+
+    /**
+     * Value passed to onFrame for regular frames, animators still running.
+     */
+    private static final float MID_ANIMATION = 0.5f;
+
+    private final ManualFrameClock mClock = new ManualFrameClock();
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+
+    private FrameLayout mContainer;
+    private WindowsXProgressBar mView;
+    private List<AnimatedDraw> mAnimatedDraws;
+
+    @Before
+    public void setUp() throws Exception {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class)
+                .create();
+        Activity activity = controller.get();
+
+        mContainer = new FrameLayout(activity);
+        activity.setContentView(mContainer);
+
+        mView = createView(activity);
+        attach();
+
+        controller.start().resume().visible().windowFocusChanged(true);
+        mView.runAnimations();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ManualAnimationScheduler.uninstall();
+    }
+
+    @Test
+    public void notRunningBeforeAttached() throws Exception {
+        mView = createView(mContainer.getContext());
+        mView.runAnimations();
+
+        for (int i = 0; i < 50; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+            assertEquals(0, mCanvas.getDotCount());
+        }
+    }
+
+    @Test
+    public void visibilityAttribute_inflates() throws Exception {
+        // Before API 24 the View constructor reports this visibility before fields are set.
+        WindowsXProgressBar view = new WindowsXProgressBar(mContainer.getContext(),
+                Robolectric.buildAttributeSet()
+                        .addAttribute(android.R.attr.visibility, "invisible")
+                        .build());
+
+        assertEquals(View.INVISIBLE, view.getVisibility());
+        assertEquals(0, view.getFramesSaved());
+    }
+
+    @Test
+    public void perDot_lateFramesStartEveryDueDot() throws Exception {
+        // Five dots, 1500ms each, starting 300ms apart.
+        frame(100, MID_ANIMATION);
+        assertEquals(1, mCanvas.getDotCount());
+
+        // One late frame passes the start of dots 1 to 3 at once.
+        frame(1000, MID_ANIMATION);
+        assertEquals(4, mCanvas.getDotCount());
+
+        // Dropped frames: dot 0 ended at 1500ms, dot 4 started at 1200ms.
+        frame(900, MID_ANIMATION);
+        assertEquals(4, mCanvas.getDotCount());
+    }
+
+    @Test
+    public void perDot_drawsAllDotsWithOneOperation() throws Exception {
+        // All five dots are moving 1300ms in.
+        frame(1300, MID_ANIMATION);
+
+        assertEquals(5, mCanvas.getDotCount());
+        assertEquals(1, mCanvas.getDrawOpCount());
+        assertEquals(0, mCanvas.getCircleCount());
+        assertEquals(1, mView.getLastFrameDrawOpCount());
+    }
+
+    @Test
+    public void animatorHandoff_keepsLoopRunning() throws Exception {
+        // Every animator reports its end, as when frames arrive slower than the clock.
+        for (long time = 0; time < 2800; time += FRAME_INTERVAL) {
+            frame(FRAME_INTERVAL, 1.0f);
+        }
+
+        // Period is 4 * 300ms + 1500ms, so the loop is 100ms into its second run.
+        frame(2800 - mClock.uptimeMillis(), 1.0f);
+        assertEquals(1, mCanvas.getDotCount());
+
+        // A long stall doesn't stop the loop either.
+        frame(10000, 1.0f);
+        frame(FRAME_INTERVAL, MID_ANIMATION);
+        assertTrue(mCanvas.getDotCount() > 0);
+    }
+
+    @Test
+    public void engines_agreeUnderJank() throws Exception {
+        long[] frameIntervals = {16, 16, 48, 16, 250, 16, 33, 700, 16, 1200, 16};
+
+        for (long frameInterval : frameIntervals) {
+            frame(frameInterval, MID_ANIMATION);
+            float[] perDotPositions = mCanvas.copyDotPositions();
+
+            mView.setEngine(WindowsXProgressBar.ENGINE_SINGLE_CLOCK);
+            mAnimatedDraws = mView.getAnimatedDraws();
+            frame(0, MID_ANIMATION);
+
+            assertEquals(perDotPositions.length / 2, mCanvas.getDotCount());
+            for (int i = 0; i < perDotPositions.length; i++) {
+                assertEquals(perDotPositions[i], mCanvas.getDotPosition(i), DELTA);
+            }
+
+            mView.setEngine(WindowsXProgressBar.ENGINE_PER_DOT);
+            mAnimatedDraws = mView.getAnimatedDraws();
+        }
+    }
+
+    @Test
+    public void detached_resumesAtSamePhase() throws Exception {
+        frame(400, MID_ANIMATION);
+        float[] positions = mCanvas.copyDotPositions();
+
+        // A second spent detached, frames keep coming from elsewhere.
+        mContainer.removeView(mView);
+        for (int i = 0; i < 10; i++) {
+            frame(100, MID_ANIMATION);
+        }
+        attach();
+
+        frame(0, MID_ANIMATION);
+        assertEquals(positions.length / 2, mCanvas.getDotCount());
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], mCanvas.getDotPosition(i), DELTA);
+        }
+
+        // A second at 60 frames per second.
+        assertEquals(60, mView.getFramesSaved(), 1);
+    }
+
+    @Test
+    public void parentRedraws_doNotAgeTrails() throws Exception {
+        mView.setTrailLength(4);
+        for (int i = 0; i < 10; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+        }
+        int pointCount = mCanvas.getPointCount();
+        assertTrue(pointCount > 0);
+
+        // Parent invalidations redraw the frame without moving the dots.
+        for (int i = 0; i < 5; i++) {
+            draw(mView, mAnimatedDraws);
+            assertEquals(pointCount, mCanvas.getPointCount());
+        }
+    }
+
+    @Test
+    public void scheduler_registersOnlyWhileRunning() throws Exception {
+        ManualAnimationScheduler scheduler = ManualAnimationScheduler.install();
+        WindowsXProgressBar view = createScheduledView();
+
+        view.runAnimations();
+        assertEquals(1, scheduler.getClientCount());
+        assertTrue(scheduler.isFrameRequested());
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(scheduler.frame(FRAME_INTERVAL));
+            draw(view, view.getAnimatedDraws());
+        }
+        assertTrue(mCanvas.getDotCount() > 0);
+
+        view.stopAnimations();
+        assertEquals(0, scheduler.getClientCount());
+        assertFalse(scheduler.isFrameRequested());
+
+        // Stopped views keep their phase.
+        float[] positions = mCanvas.copyDotPositions();
+        assertFalse(scheduler.frame(FRAME_INTERVAL));
+        draw(view, view.getAnimatedDraws());
+        assertEquals(positions.length / 2, mCanvas.getDotCount());
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], mCanvas.getDotPosition(i), DELTA);
+        }
+    }
+
+    @Test
+    public void scheduler_unregistersWhenDetached() throws Exception {
+        ManualAnimationScheduler scheduler = ManualAnimationScheduler.install();
+        WindowsXProgressBar view = createScheduledView();
+
+        view.runAnimations();
+        scheduler.frame(FRAME_INTERVAL);
+        mContainer.removeView(view);
+
+        assertEquals(0, scheduler.getClientCount());
+        assertFalse(scheduler.isFrameRequested());
+    }
+
+    @Test
+    public void scheduler_cappedFramesAreSkipped() throws Exception {
+        ManualAnimationScheduler scheduler = ManualAnimationScheduler.install();
+        WindowsXProgressBar view = createScheduledView();
+        view.setFrameMetricsEnabled(true);
+        view.setFrameRatePolicy(FrameRateGovernor.POLICY_CAPPED);
+        view.setCappedFrameRate(30);
+
+        view.runAnimations();
+        // A second at 60 frames per second, 16.67ms apart.
+        for (int i = 0; i < 60; i++) {
+            assertTrue(scheduler.frame(i % 3 == 0 ? 16 : 17));
+        }
+
+        // Skipped frames keep the client registered, they just don't advance it.
+        assertEquals(1, scheduler.getClientCount());
+        assertEquals(30, view.getFrameMetrics().getSnapshot().framesAnimated, 2);
+    }
+
+    @Test
+    public void steadyStateFrames_doNotAllocate() throws Exception {
+        mView.setTrailLength(4);
+        assertFramesDoNotAllocate();
+
+        mView.setEngine(WindowsXProgressBar.ENGINE_SINGLE_CLOCK);
+        mAnimatedDraws = mView.getAnimatedDraws();
+        assertFramesDoNotAllocate();
+    }
+
+    private void assertFramesDoNotAllocate() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up over several loops so class loading and JIT compilation don't count.
+        for (int i = 0; i < 1000; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+        }
+
+        // Cost of measuring itself.
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 500; i++) {
+            frame(FRAME_INTERVAL, MID_ANIMATION);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertEquals("Allocated bytes", 0, Math.max(0, allocated));
+    }
+
+    private WindowsXProgressBar createView(Context context) {
+        WindowsXProgressBar view = new WindowsXProgressBar(context);
+        view.setFrameClock(mClock);
+        mAnimatedDraws = view.getAnimatedDraws();
+
+        return view;
+    }
+
+    /**
+     * Create a view on its default clock, attached and laid out.
+     * Views pick up the scheduler they are created with.
+     */
+    private WindowsXProgressBar createScheduledView() {
+        WindowsXProgressBar view = new WindowsXProgressBar(mContainer.getContext());
+        mContainer.addView(view, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        view.layout(0, 0, WIDTH, HEIGHT);
+
+        return view;
+    }
+
+    private void attach() {
+        mContainer.addView(mView, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        mView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Advance the clock and run a single frame.
+     * @param intervalMillis Time since the previous frame.
+     * @param interpolatedTime Value passed to every animated draw's onFrame.
+     */
+    private void frame(long intervalMillis, float interpolatedTime) {
+        mClock.advance(intervalMillis);
+
+        for (int i = 0; i < mAnimatedDraws.size(); i++) {
+            mAnimatedDraws.get(i).onFrame(interpolatedTime);
+        }
+
+        draw(mView, mAnimatedDraws);
+    }
+
+    /**
+     * Draw statics and animated draws of the view without running their frames.
+     * @param view View to draw.
+     * @param animatedDraws Animated draws of the view.
+     */
+    private void draw(WindowsXProgressBar view, List<AnimatedDraw> animatedDraws) {
+        mCanvas.reset();
+        view.onDrawStatics(mCanvas);
+        for (int i = 0; i < animatedDraws.size(); i++) {
+            animatedDraws.get(i).onDraw(mCanvas);
+        }
+    }
+
+}